@@ -115,11 +115,11 @@ const BattlePage: React.FC = () => {
     try {
       // Try to get battle history
       try {
-        const response = await battleAPI.getAllBattles();
+        const response = await battleAPI.getBattleHistory(20); // Show the most recent 20
         console.log('Battle History Response:', response.data);
         
-        if (response.data && Array.isArray(response.data)) {
-          setBattleHistory(response.data.slice(0, 20)); // Show the most recent 20
+        if (response.data && Array.isArray(response.data.battles)) {
+          setBattleHistory(response.data.battles);
         } else {
           console.warn('Battle history data is not in array format:', response.data);
           setBattleHistory([]);
@@ -95,12 +95,13 @@ const Dashboard: React.FC = () => {
       
       // Try to get battle history
       try {
-        const battlesResponse = await battleAPI.getAllBattles();
+        const battlesResponse = await battleAPI.getBattleHistory(10); // Show last 10
+        const countResponse = await battleAPI.getBattleCount();
         console.log('Battles Response:', battlesResponse.data);
         
-        if (battlesResponse.data && Array.isArray(battlesResponse.data)) {
-          setRecentBattles(battlesResponse.data.slice(0, 10)); // Show last 10
-          setTotalBattles(battlesResponse.data.length);
+        if (battlesResponse.data && Array.isArray(battlesResponse.data.battles)) {
+          setRecentBattles(battlesResponse.data.battles);
+          setTotalBattles(typeof countResponse.data === 'number' ? countResponse.data : battlesResponse.data.battles.length);
         } else {
           setRecentBattles([]);
           setTotalBattles(0);
@@ -51,6 +51,7 @@ const RoyalRumblePage: React.FC = () => {
   const [selectedMonsters, setSelectedMonsters] = useState<string[]>([]);
   const [rumbleResult, setRumbleResult] = useState<RumbleResult | null>(null);
   const [rumbleHistory, setRumbleHistory] = useState<RumbleResult[]>([]);
+  const [historyLogs, setHistoryLogs] = useState<Record<string, string[]>>({});
 
   useEffect(() => {
     fetchMonsters();
@@ -109,14 +110,15 @@ const RoyalRumblePage: React.FC = () => {
   const fetchRumbleHistory = async () => {
     try {
       console.log('Starting to fetch Royal Rumble history...');
-      const response = await royalRumbleAPI.getAllRumbles();
+      const response = await royalRumbleAPI.getRumbleHistory(10); // Show latest 10
       console.log('Rumble History Response:', response);
       
-      if (response.data && Array.isArray(response.data)) {
-        console.log(`Successfully retrieved ${response.data.length} Royal Rumble history records`);
+      if (response.data && Array.isArray(response.data.rumbles)) {
+        const rumbles: RumbleResult[] = response.data.rumbles;
+        console.log(`Successfully retrieved ${rumbles.length} Royal Rumble history records`);
         
         // Enhance history data to ensure participant information is complete
-        const enhancedHistory = response.data.map(history => {
+        const enhancedHistory = rumbles.map(history => {
           // Ensure date information exists
           if (!history.battleDate) {
             history.battleDate = new Date().toISOString(); // Use current date as default
@@ -403,6 +405,19 @@ const RoyalRumblePage: React.FC = () => {
     );
   };
 
+  // The battle log of past rumbles is only fetched when its panel is opened
+  const fetchRumbleLog = async (rumbleId: string) => {
+    if (historyLogs[rumbleId]) {
+      return;
+    }
+    try {
+      const response = await royalRumbleAPI.getRumbleLog(rumbleId);
+      setHistoryLogs(logs => ({ ...logs, [rumbleId]: response.data || [] }));
+    } catch (error) {
+      console.error('Failed to fetch Royal Rumble log:', error);
+    }
+  };
+
   const renderRumbleHistory = () => {
     if (rumbleHistory.length === 0) {
       return <Empty description="No Royal Rumble history records" />;
@@ -417,7 +432,7 @@ const RoyalRumblePage: React.FC = () => {
           const winner = history.winner || monsters.find(m => m.id === history.winnerId);
           
           // Ensure battleLog exists
-          const battleLog = history.battleLog || [];
+          const battleLog = history.battleLog || historyLogs[history.id] || [];
           
           return (
             <List.Item>
@@ -432,7 +447,14 @@ const RoyalRumblePage: React.FC = () => {
                         ? history.participants.map(p => getMonsterName(p)).join(', ')
                         : history.participantIds.map(id => getMonsterNameById(id)).join(', ')
                     }</p>
-                    <Collapse style={{ marginTop: 8 }}>
+                    <Collapse
+                      style={{ marginTop: 8 }}
+                      onChange={keys => {
+                        if (keys.length > 0 && !history.battleLog) {
+                          fetchRumbleLog(history.id);
+                        }
+                      }}
+                    >
                       <Panel header="View Detailed Battle Process" key="1">
                         {battleLog.length > 0 ? (
                           <ul style={{ maxHeight: '200px', overflowY: 'auto', padding: '0 0 0 20px' }}>
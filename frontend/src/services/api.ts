@@ -113,21 +113,27 @@ export const battleAPI = {
   getMonsterBattles: (monsterId: string) => {
     return api.get(`/battles/monster/${monsterId}`);
   },
-  getAllBattles: () => {
-    return api.get('/battles/history');
+  getBattleHistory: (limit: number = 20, cursor?: string) => {
+    return api.get('/battles/history', { params: { limit, cursor } });
+  },
+  getBattleCount: () => {
+    return api.get('/battles/count');
   },
 };
 
 // Royal Rumble related APIs
 export const royalRumbleAPI = {
   startRumble: (monsterIds: string[]) => {
-    return api.post('/royal-rumble', { monsterIds });
+    return api.post('/royal-rumble', { monsterIds }, { params: { narrate: true } });
+  },
+  getRumbleLog: (rumbleId: string) => {
+    return api.get(`/royal-rumble/${rumbleId}/log`);
   },
   getRumbleExperience: (rumbleId: string) => {
     return api.get(`/royal-rumble/experience/${rumbleId}`);
   },
-  getAllRumbles: () => {
-    return api.get('/royal-rumble');
+  getRumbleHistory: (limit: number = 20, cursor?: string) => {
+    return api.get('/royal-rumble/history', { params: { limit, cursor } });
   },
 };
 
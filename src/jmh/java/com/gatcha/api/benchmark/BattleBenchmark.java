@@ -0,0 +1,78 @@
+package com.gatcha.api.benchmark;
+
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.MatchupCache;
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.battle.service.impl.BattleServiceImpl;
+import com.gatcha.api.battle.settlement.BattleSettlement;
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.player.service.PlayerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-on-one battle between two template monsters, including battle log
+ * creation and the (stubbed) experience and roster updates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BattleBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"1:2", "1:3", "2:4", "3:4"})
+    public String matchup;
+
+    // 0 disables matchup memoization, every invocation fights the battle
+    @Param({"0", "10000"})
+    public int matchupCacheSize;
+
+    private BattleServiceImpl battleService;
+
+    @Setup
+    public void setUp() {
+        List<MonsterTemplate> templates = Fixtures.templates();
+        String[] templateIds = matchup.split(":");
+        Map<String, PlayerMonster> monsters = new HashMap<>();
+        for (String templateId : templateIds) {
+            MonsterTemplate template = templates.get(Integer.parseInt(templateId) - 1);
+            monsters.put("m" + templateId, Fixtures.monster("m" + templateId, USERNAME, template));
+        }
+
+        MonsterService monsterService = Stubs.stub(MonsterService.class, Map.of(
+                "getMonsterById", args -> monsters.get((String) args[0]),
+                "grantExperience", args -> true));
+        PlayerService playerService = Stubs.stub(PlayerService.class, Map.of(
+                "removeMonstersIfOwned", args -> true));
+        BattleLogRepository battleLogRepository = Stubs.stub(BattleLogRepository.class, Map.of(
+                "save", args -> {
+                    BattleLog battleLog = (BattleLog) args[0];
+                    battleLog.setId("battle");
+                    return battleLog;
+                }));
+
+        BattleSettlement battleSettlement = new BattleSettlement(battleLogRepository, monsterService, playerService,
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class));
+        battleService = new BattleServiceImpl(battleLogRepository, monsterService, battleSettlement,
+                new MatchupCache(new BattleEngine(1000), matchupCacheSize), 1000);
+    }
+
+    @Benchmark
+    public BattleLog battle() {
+        String[] templateIds = matchup.split(":");
+        return battleService.battle("m" + templateIds[0], "m" + templateIds[1], USERNAME);
+    }
+}
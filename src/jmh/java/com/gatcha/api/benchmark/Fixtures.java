@@ -0,0 +1,73 @@
+package com.gatcha.api.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark fixtures built from the monster templates shipped in data/monstres.js
+ */
+final class Fixtures {
+
+    private static final List<MonsterTemplate> TEMPLATES = loadTemplates();
+
+    private Fixtures() {
+    }
+
+    static List<MonsterTemplate> templates() {
+        return TEMPLATES;
+    }
+
+    /**
+     * Fresh level 1 monster for a template, like MonsterServiceImpl creates them
+     */
+    static PlayerMonster monster(String id, String username, MonsterTemplate template) {
+        PlayerMonster monster = new PlayerMonster();
+        monster.setId(id);
+        monster.setUsername(username);
+        monster.setTemplateId(String.valueOf(template.getId()));
+        monster.setElement(template.getElement());
+        monster.setLevel(1);
+        monster.setHp(template.getHp());
+        monster.setAtk(template.getAtk());
+        monster.setDef(template.getDef());
+        monster.setVit(template.getVit());
+        monster.setSkills(template.getSkills().stream()
+                .map(skill -> new Skill(skill.getNum(), skill.getDmg(),
+                        new Skill.Ratio(skill.getRatio().getStat(), skill.getRatio().getPercent()),
+                        skill.getCooldown(), 0, skill.getLvlMax()))
+                .collect(Collectors.toList()));
+        monster.setVersion(0L);
+        return monster;
+    }
+
+    private static List<MonsterTemplate> loadTemplates() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        try (InputStream input = Fixtures.class.getResourceAsStream("/data/monstres.js")) {
+            if (input == null) {
+                throw new IllegalStateException("data/monstres.js not found on the classpath");
+            }
+            List<MonsterTemplate> templates = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(input)) {
+                // The file is a mongoimport dump, the ID is stored as _id
+                ((ObjectNode) node).set("id", node.get("_id"));
+                templates.add(objectMapper.treeToValue(node, MonsterTemplate.class));
+            }
+            return templates;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.gatcha.api.benchmark;
+
+import com.gatcha.api.utils.NameGenerator;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name generation for realistic (ObjectId) monster IDs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameGeneratorBenchmark {
+
+    private static final String[] ELEMENTS = {"fire", "water", "wind", "earth"};
+
+    private String[] monsterIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        monsterIds = new String[1024];
+        for (int i = 0; i < monsterIds.length; i++) {
+            monsterIds[i] = new ObjectId().toHexString();
+        }
+    }
+
+    @Benchmark
+    public String generateName() {
+        int index = next++ & (monsterIds.length - 1);
+        return NameGenerator.generateName(monsterIds[index], ELEMENTS[index & 3]);
+    }
+
+    @Benchmark
+    public String cachedName() {
+        int index = next++ & (monsterIds.length - 1);
+        return NameGenerator.cachedName(monsterIds[index], ELEMENTS[index & 3]);
+    }
+}
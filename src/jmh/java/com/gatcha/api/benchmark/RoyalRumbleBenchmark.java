@@ -0,0 +1,72 @@
+package com.gatcha.api.benchmark;
+
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.RumbleEngine;
+import com.gatcha.api.battle.model.RoyalRumble;
+import com.gatcha.api.battle.repository.RoyalRumbleRepository;
+import com.gatcha.api.battle.service.impl.RoyalRumbleServiceImpl;
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.player.service.PlayerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Royal rumble between copies of every template, from one copy each to a crowded arena
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoyalRumbleBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"1", "50"})
+    public int copies;
+
+    private RoyalRumbleServiceImpl royalRumbleService;
+    private List<String> monsterIds;
+
+    @Setup
+    public void setUp() {
+        Map<String, PlayerMonster> monsters = new LinkedHashMap<>();
+        for (int copy = 0; copy < copies; copy++) {
+            for (MonsterTemplate template : Fixtures.templates()) {
+                String id = "m" + template.getId() + "-" + copy;
+                monsters.put(id, Fixtures.monster(id, USERNAME, template));
+            }
+        }
+        monsterIds = new ArrayList<>(monsters.keySet());
+
+        MonsterService monsterService = Stubs.stub(MonsterService.class, Map.of(
+                "getMonstersByUsername", args -> new ArrayList<>(monsters.values()),
+                "getMonstersByIds", args -> ((Collection<?>) args[0]).stream()
+                        .map(monsters::get)
+                        .collect(Collectors.toList()),
+                "addExperience", args -> monsters.get((String) args[0])));
+        PlayerService playerService = Stubs.stub(PlayerService.class, Map.of(
+                "removeMonster", args -> true,
+                "removeMonsters", args -> true));
+        RoyalRumbleRepository royalRumbleRepository = Stubs.stub(RoyalRumbleRepository.class, Map.of(
+                "insert", args -> args[0]));
+
+        royalRumbleService = new RoyalRumbleServiceImpl(monsterService, royalRumbleRepository, playerService,
+                new RumbleEngine(new BattleEngine(1000)), 1000);
+    }
+
+    @Benchmark
+    public RoyalRumble startRoyalRumble() {
+        return royalRumbleService.startRoyalRumble(USERNAME, monsterIds);
+    }
+}
@@ -0,0 +1,37 @@
+package com.gatcha.api.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for repositories and services, so benchmarks measure
+ * the service code without MongoDB. Methods are dispatched by name; any
+ * method without a handler throws.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName() + " stub";
+                }
+            }
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args);
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.gatcha.api.benchmark;
+
+import com.gatcha.api.auth.model.User;
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.repository.MonsterTemplateRepository;
+import com.gatcha.api.monster.repository.PlayerMonsterRepository;
+import com.gatcha.api.monster.service.impl.MonsterServiceImpl;
+import com.gatcha.api.player.service.PlayerService;
+import com.gatcha.api.summon.repository.SummonLogRepository;
+import com.gatcha.api.summon.service.impl.SummonServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single and ten-pull summons through the real template catalog and
+ * monster creation, with in-memory persistence
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummonBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    private SummonServiceImpl summonService;
+
+    @Setup
+    public void setUp() {
+        AtomicLong ids = new AtomicLong();
+
+        MonsterTemplateRepository monsterTemplateRepository = Stubs.stub(MonsterTemplateRepository.class, Map.of(
+                "findAll", args -> new ArrayList<>(Fixtures.templates())));
+        MonsterTemplateCatalog monsterTemplateCatalog = new MonsterTemplateCatalog(monsterTemplateRepository);
+
+        PlayerMonsterRepository playerMonsterRepository = Stubs.stub(PlayerMonsterRepository.class, Map.of(
+                "save", args -> withId((PlayerMonster) args[0], ids),
+                "insert", args -> {
+                    @SuppressWarnings("unchecked")
+                    List<PlayerMonster> monsters = (List<PlayerMonster>) args[0];
+                    monsters.forEach(monster -> withId(monster, ids));
+                    return monsters;
+                }));
+        MonsterServiceImpl monsterService = new MonsterServiceImpl(playerMonsterRepository, monsterTemplateCatalog,
+                null);
+
+        SummonLogRepository summonLogRepository = Stubs.stub(SummonLogRepository.class, Map.of(
+                "save", args -> args[0],
+                "insert", args -> args[0]));
+        // Every summon starts from an empty roster, so the slot limit never kicks in
+        PlayerService playerService = Stubs.stub(PlayerService.class, Map.of(
+                "getProfile", args -> {
+                    User user = new User();
+                    user.setUsername(USERNAME);
+                    user.setLevel(1);
+                    return user;
+                },
+                "addMonster", args -> true,
+                "addMonsters", args -> true));
+
+        summonService = new SummonServiceImpl(monsterTemplateCatalog, summonLogRepository, monsterService,
+                playerService);
+    }
+
+    private static PlayerMonster withId(PlayerMonster monster, AtomicLong ids) {
+        monster.setId(Long.toHexString(ids.incrementAndGet()));
+        return monster;
+    }
+
+    @Benchmark
+    public PlayerMonster summon() {
+        return summonService.summon(USERNAME);
+    }
+
+    @Benchmark
+    public List<PlayerMonster> summonMultiple() {
+        return summonService.summonMultiple(USERNAME, 10);
+    }
+}
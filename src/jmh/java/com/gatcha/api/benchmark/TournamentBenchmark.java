@@ -0,0 +1,91 @@
+package com.gatcha.api.benchmark;
+
+import com.gatcha.api.battle.dto.TournamentResult;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.MatchupCache;
+import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.battle.service.impl.BattleServiceImpl;
+import com.gatcha.api.battle.service.impl.TournamentServiceImpl;
+import com.gatcha.api.battle.settlement.BattleSettlement;
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.player.service.PlayerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Single-elimination tournament between copies of the templates, including
+ * the (stubbed) batched settlement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"64", "256"})
+    public int size;
+
+    // 0 disables matchup memoization, every match is fought
+    @Param({"0", "10000"})
+    public int matchupCacheSize;
+
+    private ForkJoinPool tournamentPool;
+    private TournamentServiceImpl tournamentService;
+    private List<String> monsterIds;
+
+    @Setup
+    public void setUp() {
+        List<MonsterTemplate> templates = Fixtures.templates();
+        Map<String, PlayerMonster> monsters = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String id = "m" + i;
+            monsters.put(id, Fixtures.monster(id, USERNAME, templates.get(i % templates.size())));
+        }
+        monsterIds = new ArrayList<>(monsters.keySet());
+
+        MonsterService monsterService = Stubs.stub(MonsterService.class, Map.of(
+                "getMonstersByIds", args -> ((Collection<?>) args[0]).stream()
+                        .map(monsters::get)
+                        .collect(Collectors.toList()),
+                "getMonsterById", args -> monsters.get((String) args[0]),
+                "grantExperience", args -> ((List<?>) args[0]).size()));
+        PlayerService playerService = Stubs.stub(PlayerService.class, Map.of(
+                "removeMonstersIfOwned", args -> true));
+        BattleLogRepository battleLogRepository = Stubs.stub(BattleLogRepository.class, Map.of(
+                "insert", args -> args[0]));
+
+        BattleSettlement battleSettlement = new BattleSettlement(battleLogRepository, monsterService, playerService,
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class));
+        BattleServiceImpl battleService = new BattleServiceImpl(battleLogRepository, monsterService,
+                battleSettlement, new MatchupCache(new BattleEngine(1000), matchupCacheSize), 1000);
+        tournamentPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        tournamentService = new TournamentServiceImpl(monsterService, battleService, battleSettlement,
+                tournamentPool, 256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tournamentPool.shutdownNow();
+    }
+
+    @Benchmark
+    public TournamentResult startTournament() {
+        return tournamentService.startTournament(USERNAME, monsterIds);
+    }
+}
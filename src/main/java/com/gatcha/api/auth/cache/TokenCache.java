@@ -0,0 +1,221 @@
+package com.gatcha.api.auth.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of validated tokens (token -> username + expiry).
+ * Sliding expiration is tracked on the cached entry so that a cache hit does
+ * not need a MongoDB round-trip. An entry is only trusted for maxAge
+ * milliseconds, after that the token is revalidated against the store so that
+ * a logout or new login on another node is picked up.
+ */
+@Component
+public class TokenCache implements MeterBinder {
+
+    private final int maxSize;
+    private final long maxAge;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Current token of each user, used to drop the old token when a user logs in again
+    private final Map<String, String> tokensByUsername = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenCache(@Value("${auth.token-cache.max-size:10000}") int maxSize,
+            @Value("${auth.token-cache.max-age:60000}") long maxAge) {
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get a cached, non-expired entry for the token
+     *
+     * @param token Token
+     * @return Cached entry, or null if the token is unknown, expired or must be revalidated
+     */
+    public Entry get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now) || isStale(entry, now)) {
+            invalidate(token);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Cache a validated token, replacing any other token cached for the same user
+     *
+     * @param token          Token
+     * @param username       Owner of the token
+     * @param expirationTime Stored expiration time in milliseconds
+     * @return The cached entry
+     */
+    public Entry put(String token, String username, long expirationTime) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        Entry entry = new Entry(username, expirationTime, System.currentTimeMillis());
+        entries.put(token, entry);
+        String previousToken = tokensByUsername.put(username, token);
+        if (previousToken != null && !previousToken.equals(token)) {
+            entries.remove(previousToken);
+        }
+        return entry;
+    }
+
+    /**
+     * Remove a token from the cache
+     *
+     * @param token Token
+     */
+    public void invalidate(String token) {
+        Entry entry = entries.remove(token);
+        if (entry != null) {
+            tokensByUsername.remove(entry.getUsername(), token);
+        }
+    }
+
+    /**
+     * Remove the token cached for a user, e.g. when the user logs in again
+     *
+     * @param username Username
+     */
+    public void invalidateUser(String username) {
+        String token = tokensByUsername.remove(username);
+        if (token != null) {
+            entries.remove(token);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.token.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("auth.token.cache.size", entries, Map::size)
+                .register(registry);
+    }
+
+    private boolean isStale(Entry entry, long now) {
+        return now - entry.getCachedAt() >= maxAge;
+    }
+
+    /**
+     * Make room for new entries: drop expired and stale entries first, then
+     * arbitrary ones until the cache is back under 90% of its capacity, so the
+     * scan runs once per batch of inserts rather than on every insert
+     */
+    private synchronized void evict() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().isExpired(now) || isStale(e.getValue(), now)) {
+                tokensByUsername.remove(e.getValue().getUsername(), e.getKey());
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            Map.Entry<String, Entry> e = iterator.next();
+            iterator.remove();
+            tokensByUsername.remove(e.getValue().getUsername(), e.getKey());
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Cached token entry
+     */
+    public static class Entry {
+        private final String username;
+        // When the entry was last validated against the store
+        private final long cachedAt;
+        private volatile long expirationTime;
+        // Expiration last written (or queued) to the database
+        private volatile long persistedExpirationTime;
+
+        Entry(String username, long expirationTime, long cachedAt) {
+            this.username = username;
+            this.cachedAt = cachedAt;
+            this.expirationTime = expirationTime;
+            this.persistedExpirationTime = expirationTime;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getCachedAt() {
+            return cachedAt;
+        }
+
+        public long getExpirationTime() {
+            return expirationTime;
+        }
+
+        public long getPersistedExpirationTime() {
+            return persistedExpirationTime;
+        }
+
+        public void markPersisted(long expirationTime) {
+            this.persistedExpirationTime = expirationTime;
+        }
+
+        public boolean isExpired(long now) {
+            return expirationTime < now;
+        }
+
+        /**
+         * Push the expiration forward (sliding expiration)
+         *
+         * @param expirationTime New expiration time in milliseconds
+         */
+        public void touch(long expirationTime) {
+            this.expirationTime = expirationTime;
+        }
+    }
+}
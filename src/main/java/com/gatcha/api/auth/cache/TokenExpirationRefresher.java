@@ -0,0 +1,117 @@
+package com.gatcha.api.auth.cache;
+
+import com.gatcha.api.auth.model.AuthToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for sliding token expiration.
+ * Expiration bumps are coalesced per token and written to the authTokens
+ * collection in periodic bulk $set batches instead of one save per request.
+ */
+@Component
+public class TokenExpirationRefresher {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final long minRefreshInterval;
+
+    // Pending expiration per token, only the latest bump is kept
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    public TokenExpirationRefresher(MongoTemplate mongoTemplate,
+            @Value("${auth.token-refresh.batch-size:500}") int batchSize,
+            @Value("${auth.token-refresh.min-interval:60000}") long minRefreshInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    /**
+     * Queue the new expiration of a cached token.
+     * The bump is skipped when the stored expiration is recent enough.
+     *
+     * @param token Token
+     * @param entry Cached entry holding the new expiration
+     * @return true if a write was queued
+     */
+    public boolean schedule(String token, TokenCache.Entry entry) {
+        long expirationTime = entry.getExpirationTime();
+        if (expirationTime - entry.getPersistedExpirationTime() < minRefreshInterval) {
+            return false;
+        }
+        entry.markPersisted(expirationTime);
+        pending.merge(token, expirationTime, Math::max);
+        return true;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write all pending expiration bumps, batchSize tokens per bulk operation
+     *
+     * @return Number of tokens written
+     */
+    @Scheduled(fixedDelayString = "${auth.token-refresh.flush-interval:5000}")
+    public int flush() {
+        int written = 0;
+        List<Map.Entry<String, Long>> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<String> iterator = pending.keySet().iterator();
+        while (iterator.hasNext()) {
+            String token = iterator.next();
+            Long expirationTime = pending.remove(token);
+            if (expirationTime == null) {
+                continue;
+            }
+            batch.add(Map.entry(token, expirationTime));
+            if (batch.size() >= batchSize) {
+                written += write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += write(batch);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private int write(List<Map.Entry<String, Long>> batch) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthToken.class);
+        for (Map.Entry<String, Long> bump : batch) {
+            operations.updateOne(new Query(Criteria.where("token").is(bump.getKey())),
+                    new Update().set("expirationDate", new Date(bump.getValue())));
+        }
+        try {
+            operations.execute();
+        } catch (Exception e) {
+            // Put the bumps back so the next flush retries them
+            for (Map.Entry<String, Long> bump : batch) {
+                pending.merge(bump.getKey(), bump.getValue(), Math::max);
+            }
+            System.err.println("Failed to refresh token expirations: " + e.getMessage());
+            return 0;
+        }
+        return batch.size();
+    }
+}
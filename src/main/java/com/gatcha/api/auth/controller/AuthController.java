@@ -27,4 +27,10 @@ public class AuthController {
         String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(username);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String token) {
+        authService.logout(token.replace("Bearer ", ""));
+        return ResponseEntity.ok().build();
+    }
+}
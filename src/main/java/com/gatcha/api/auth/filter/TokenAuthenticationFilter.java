@@ -0,0 +1,94 @@
+package com.gatcha.api.auth.filter;
+
+import com.gatcha.api.auth.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Authenticates API requests once, before controller dispatch.
+ * The username resolved from the Authorization header becomes the principal
+ * of the SecurityContext; invalid tokens are rejected with 401.
+ * Configured designers are also granted the DESIGNER role.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final List<GrantedAuthority> DESIGNER_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_DESIGNER"));
+
+    private final AuthService authService;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> designers;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public TokenAuthenticationFilter(AuthService authService, MeterRegistry meterRegistry, Set<String> designers) {
+        this.authService = authService;
+        this.meterRegistry = meterRegistry;
+        this.designers = designers;
+        this.authenticatedTimer = timer(meterRegistry, "authenticated");
+        this.rejectedTimer = timer(meterRegistry, "rejected");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !path.startsWith("/api/") || path.startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || header.isEmpty()) {
+            // No credentials, the authorization rules decide whether the request is allowed
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.startsWith(BEARER_PREFIX) ? header.substring(BEARER_PREFIX.length()) : header;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String username;
+        try {
+            username = authService.validateToken(token);
+        } catch (AuthenticationException e) {
+            sample.stop(rejectedTimer);
+            SecurityContextHolder.clearContext();
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), e.getMessage());
+            return;
+        }
+        sample.stop(authenticatedTimer);
+
+        Collection<GrantedAuthority> authorities = designers.contains(username)
+                ? DESIGNER_AUTHORITIES : Collections.emptyList();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                username, null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        filterChain.doFilter(request, response);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.filter.latency")
+                .description("Time spent validating the request token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package com.gatcha.api.auth.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and validates HMAC-signed JWTs for the stateless token mode.
+ * Validation checks the signature, the expiration and the user's token
+ * version (see TokenVersionStore), which is cached between lookups.
+ */
+@Component
+public class JwtTokenProvider {
+
+    private static final String VERSION_CLAIM = "ver";
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expirationTime;
+    private final TokenVersionStore versionStore;
+
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") long expirationTime,
+            TokenVersionStore versionStore) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.expirationTime = expirationTime;
+        this.versionStore = versionStore;
+    }
+
+    /**
+     * Issue a signed token for a user, revoking the previous ones
+     *
+     * @param username Username
+     * @return Signed token
+     */
+    public String issue(String username) {
+        Date now = new Date();
+        Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + expirationTime));
+        claims.put(VERSION_CLAIM, versionStore.next(username));
+
+        return Jwts.builder()
+                .setClaims(claims)
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Validate a signed token
+     *
+     * @param token Signed token
+     * @return Username
+     */
+    public String validate(String token) {
+        Claims claims = parse(token);
+        Long current = versionStore.current(claims.getSubject());
+        if (current == null || !current.equals(version(claims))) {
+            throw new BadCredentialsException("Token revoked");
+        }
+        return claims.getSubject();
+    }
+
+    /**
+     * Revoke a signed token, along with any other token of its user issued before it
+     *
+     * @param token Signed token
+     */
+    public void revoke(String token) {
+        Claims claims = parse(token);
+        Long version = version(claims);
+        if (version != null) {
+            versionStore.revoke(claims.getSubject(), version);
+        }
+    }
+
+    private Long version(Claims claims) {
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return version != null ? version.longValue() : null;
+    }
+
+    private Claims parse(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            throw new BadCredentialsException("Token expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid token");
+        }
+    }
+}
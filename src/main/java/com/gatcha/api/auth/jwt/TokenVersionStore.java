@@ -0,0 +1,102 @@
+package com.gatcha.api.auth.jwt;
+
+import com.gatcha.api.auth.model.User;
+import com.gatcha.api.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Current signed token version of each user, stored on the user document.
+ * Only a token carrying the current version is valid: issuing a token or
+ * logging out bumps the version, which revokes every older token of the user
+ * on every node without keeping one entry per token.
+ * <p>
+ * Versions are cached for maxAge milliseconds, so a logout on another node is
+ * picked up within that delay. Losing a cached version only costs a lookup.
+ */
+@Component
+public class TokenVersionStore {
+
+    private static final String FIELD = "tokenVersion";
+
+    private final MongoTemplate mongoTemplate;
+    private final long maxAge;
+    private final LruCache<String, CachedVersion> versions;
+
+    public TokenVersionStore(MongoTemplate mongoTemplate,
+            @Value("${auth.jwt.version-cache.max-size:10000}") int maxSize,
+            @Value("${auth.jwt.version-cache.max-age:60000}") long maxAge) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxAge = maxAge;
+        this.versions = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Bump the version of a user, revoking all tokens issued so far
+     *
+     * @param username Username
+     * @return Version of the next token
+     */
+    public long next(String username) {
+        Query query = new Query(Criteria.where("username").is(username));
+        query.fields().include(FIELD);
+        User user = mongoTemplate.findAndModify(query, new Update().inc(FIELD, 1),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found: " + username);
+        }
+        versions.put(username, new CachedVersion(user.getTokenVersion(), System.currentTimeMillis()));
+        return user.getTokenVersion();
+    }
+
+    /**
+     * Revoke the tokens of a user, unless a newer token was issued since the given version
+     *
+     * @param username Username
+     * @param version  Version of the token being revoked
+     */
+    public void revoke(String username, long version) {
+        Query query = new Query(Criteria.where("username").is(username).and(FIELD).is(version));
+        mongoTemplate.updateFirst(query, new Update().inc(FIELD, 1), User.class);
+        versions.remove(username);
+    }
+
+    /**
+     * Current version of a user
+     *
+     * @param username Username
+     * @return Current version, or null if the user does not exist
+     */
+    public Long current(String username) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(username);
+        if (cached != null && now - cached.loadedAt < maxAge) {
+            return cached.version;
+        }
+
+        Query query = new Query(Criteria.where("username").is(username));
+        query.fields().include(FIELD);
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            versions.remove(username);
+            return null;
+        }
+        versions.put(username, new CachedVersion(user.getTokenVersion(), now));
+        return user.getTokenVersion();
+    }
+
+    private static final class CachedVersion {
+        private final long version;
+        private final long loadedAt;
+
+        CachedVersion(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
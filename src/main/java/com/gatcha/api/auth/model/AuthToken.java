@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -15,8 +16,12 @@ import java.util.Date;
 public class AuthToken {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String token;
+    @Indexed(unique = true)
     private String username;
+    // TTL index: MongoDB removes the document once the expiration date has passed
+    @Indexed(expireAfterSeconds = 0)
     private Date expirationDate;
 
     public boolean isExpired() {
@@ -22,6 +22,8 @@ public class User {
     private int experience;
     private int maxExperience;
     private List<String> monsters = new ArrayList<>();
+    // Version of the only valid signed token (jwt token mode), bumped on login and logout
+    private long tokenVersion;
 
     public int getMaxMonsters() {
         return 10 + (level - 1);
@@ -4,4 +4,6 @@ public interface AuthService {
     String login(String username, String password);
 
     String validateToken(String token);
+
+    void logout(String token);
 }
\ No newline at end of file
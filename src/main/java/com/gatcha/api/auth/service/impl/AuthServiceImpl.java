@@ -1,5 +1,8 @@
 package com.gatcha.api.auth.service.impl;
 
+import com.gatcha.api.auth.cache.TokenCache;
+import com.gatcha.api.auth.cache.TokenExpirationRefresher;
+import com.gatcha.api.auth.jwt.JwtTokenProvider;
 import com.gatcha.api.auth.model.AuthToken;
 import com.gatcha.api.auth.model.User;
 import com.gatcha.api.auth.repository.AuthTokenRepository;
@@ -21,15 +24,26 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final AuthTokenRepository authTokenRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenCache tokenCache;
+    private final TokenExpirationRefresher expirationRefresher;
+    private final JwtTokenProvider jwtTokenProvider;
 
     @Value("${jwt.expiration}")
     private long tokenExpirationTime;
 
+    // "stateful": tokens stored in MongoDB, "jwt": stateless signed tokens
+    @Value("${auth.token-mode:stateful}")
+    private String tokenMode;
+
     public AuthServiceImpl(UserRepository userRepository, AuthTokenRepository authTokenRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder, TokenCache tokenCache, TokenExpirationRefresher expirationRefresher,
+            JwtTokenProvider jwtTokenProvider) {
         this.userRepository = userRepository;
         this.authTokenRepository = authTokenRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenCache = tokenCache;
+        this.expirationRefresher = expirationRefresher;
+        this.jwtTokenProvider = jwtTokenProvider;
     }
 
     @Override
@@ -42,6 +56,10 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("Invalid username or password");
         }
 
+        if (isJwtMode()) {
+            return jwtTokenProvider.issue(username);
+        }
+
         // Generate token: username-date(YYYY/MM/DD)-time(HH:mm:ss)
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd-HH:mm:ss");
         String tokenData = username + "-" + dateFormat.format(new Date());
@@ -64,22 +82,51 @@ public class AuthServiceImpl implements AuthService {
 
         authTokenRepository.save(authToken);
 
+        // The previous token of this user is no longer valid
+        tokenCache.invalidateUser(username);
+
         return token;
     }
 
     @Override
     public String validateToken(String token) {
-        AuthToken authToken = authTokenRepository.findByToken(token)
-                .orElseThrow(() -> new BadCredentialsException("Invalid token"));
+        if (isJwtMode()) {
+            return jwtTokenProvider.validate(token);
+        }
+
+        TokenCache.Entry cached = tokenCache.get(token);
+        if (cached == null) {
+            AuthToken authToken = authTokenRepository.findByToken(token)
+                    .orElseThrow(() -> new BadCredentialsException("Invalid token"));
 
-        if (authToken.isExpired()) {
-            throw new BadCredentialsException("Token expired");
+            if (authToken.isExpired()) {
+                throw new BadCredentialsException("Token expired");
+            }
+
+            cached = tokenCache.put(token, authToken.getUsername(), authToken.getExpirationDate().getTime());
         }
 
-        // Update token expiration time
-        authToken.updateExpiration(tokenExpirationTime);
-        authTokenRepository.save(authToken);
+        // Update token expiration time in memory, the database is updated in batches
+        cached.touch(System.currentTimeMillis() + tokenExpirationTime);
+        expirationRefresher.schedule(token, cached);
+
+        return cached.getUsername();
+    }
+
+    @Override
+    public void logout(String token) {
+        if (isJwtMode()) {
+            jwtTokenProvider.revoke(token);
+            return;
+        }
+
+        AuthToken authToken = authTokenRepository.findByToken(token)
+                .orElseThrow(() -> new BadCredentialsException("Invalid token"));
+        authTokenRepository.delete(authToken);
+        tokenCache.invalidate(token);
+    }
 
-        return authToken.getUsername();
+    private boolean isJwtMode() {
+        return "jwt".equalsIgnoreCase(tokenMode);
     }
-}
\ No newline at end of file
+}
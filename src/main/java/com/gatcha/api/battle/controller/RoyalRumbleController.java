@@ -1,10 +1,11 @@
 package com.gatcha.api.battle.controller;
 
-import com.gatcha.api.auth.service.AuthService;
-import com.gatcha.api.battle.dto.RoyalRumbleResult;
+import com.gatcha.api.battle.dto.RoyalRumbleHistoryPage;
+import com.gatcha.api.battle.model.RoyalRumble;
 import com.gatcha.api.battle.service.RoyalRumbleService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,27 +19,25 @@ import java.util.Map;
 public class RoyalRumbleController {
 
     private final RoyalRumbleService royalRumbleService;
-    private final AuthService authService;
 
-    public RoyalRumbleController(RoyalRumbleService royalRumbleService, AuthService authService) {
+    public RoyalRumbleController(RoyalRumbleService royalRumbleService) {
         this.royalRumbleService = royalRumbleService;
-        this.authService = authService;
     }
 
     /**
      * Start a Royal Rumble battle
      * 
-     * @param token   Authentication token
-     * @param request Request containing monster IDs
+     * @param username Authenticated username
+     * @param request  Request containing monster IDs
+     * @param narrate  Whether to include the rendered battle log
      * @return Royal Rumble result
      */
     @PostMapping
-    public ResponseEntity<RoyalRumbleResult> startRoyalRumble(
-            @RequestHeader("Authorization") String token,
-            @RequestBody Map<String, List<String>> request) {
+    public ResponseEntity<RoyalRumble> startRoyalRumble(
+            @AuthenticationPrincipal String username,
+            @RequestBody Map<String, List<String>> request,
+            @RequestParam(defaultValue = "false") boolean narrate) {
         try {
-            String username = authService.validateToken(token.replace("Bearer ", ""));
-
             // Get the list of monster IDs from the request
             List<String> monsterIds = request.get("monsterIds");
             if (monsterIds == null || monsterIds.isEmpty() || monsterIds.size() < 3) {
@@ -50,7 +49,10 @@ public class RoyalRumbleController {
 
             // Call the service to start the Royal Rumble, passing the username and monster
             // ID list
-            RoyalRumbleResult result = royalRumbleService.startRoyalRumble(username, monsterIds);
+            RoyalRumble result = royalRumbleService.startRoyalRumble(username, monsterIds);
+            if (narrate) {
+                result.setBattleLog(royalRumbleService.renderBattleLog(result));
+            }
 
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -61,52 +63,61 @@ public class RoyalRumbleController {
     }
 
     /**
-     * Get experience gained from the most recent Royal Rumble
+     * Get experience gained from one of the user's Royal Rumbles
      * 
-     * @param token    Authentication token
+     * @param username Authenticated username
      * @param rumbleId Royal Rumble ID
      * @return Experience gained
      */
     @GetMapping("/experience/{rumbleId}")
     public ResponseEntity<Integer> getExperienceGained(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String rumbleId) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
-        return ResponseEntity.ok(royalRumbleService.getExperienceGained(rumbleId));
+        try {
+            return ResponseEntity.ok(royalRumbleService.getExperienceGained(username, rumbleId));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Royal rumble experience not available: " + e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
     }
 
     /**
-     * Get all Royal Rumble history
+     * Get the battle log of one of the user's Royal Rumbles, rendered from its rounds
      * 
-     * @param token Authentication token
-     * @return List of Royal Rumble results
+     * @param username Authenticated username
+     * @param rumbleId Royal Rumble ID
+     * @return Battle log messages
      */
-    @GetMapping
-    public ResponseEntity<List<RoyalRumbleResult>> getAllRumbles(
-            @RequestHeader("Authorization") String token) {
+    @GetMapping("/{rumbleId}/log")
+    public ResponseEntity<List<String>> getBattleLog(
+            @AuthenticationPrincipal String username,
+            @PathVariable String rumbleId) {
         try {
-            // Validate token
-            String username = authService.validateToken(token.replace("Bearer ", ""));
-            if (username == null) {
-                System.out.println("Invalid token for /royal-rumble endpoint");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-
-            System.out.println("Getting all royal rumbles for user: " + username);
-
-            // Get all Royal Rumble records
-            List<RoyalRumbleResult> rumbles = royalRumbleService.getAllRumbles();
-
-            // Sort by date in descending order
-            rumbles.sort((a, b) -> b.getRumbleDate().compareTo(a.getRumbleDate()));
-
-            System.out.println("Found " + rumbles.size() + " royal rumbles");
+            return ResponseEntity.ok(royalRumbleService.getBattleLog(username, rumbleId));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Royal rumble log not available: " + e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-            return ResponseEntity.ok(rumbles);
-        } catch (Exception e) {
-            System.out.println("Error getting all royal rumbles: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    /**
+     * Get one page of the user's Royal Rumble history, newest first
+     * 
+     * @param username Authenticated username
+     * @param cursor   Cursor returned with the previous page
+     * @param limit    Maximum number of rumbles on the page
+     * @return Page of Royal Rumble results without rounds and battle logs
+     */
+    @GetMapping("/history")
+    public ResponseEntity<RoyalRumbleHistoryPage> getRumbleHistory(
+            @AuthenticationPrincipal String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(royalRumbleService.getRumbleHistory(username, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid royal rumble history request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+}
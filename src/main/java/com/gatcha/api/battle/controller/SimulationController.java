@@ -0,0 +1,49 @@
+package com.gatcha.api.battle.controller;
+
+import com.gatcha.api.battle.dto.SimulationRequest;
+import com.gatcha.api.battle.dto.SimulationResult;
+import com.gatcha.api.battle.service.SimulationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Simulation Controller
+ * Win-rate statistics for game design, no player data is read or written.
+ * Restricted to designers (see SecurityConfig)
+ */
+@RestController
+@RequestMapping("/api/simulations")
+public class SimulationController {
+
+    private final SimulationService simulationService;
+
+    public SimulationController(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    /**
+     * Run a simulation, the request thread is released while it runs
+     *
+     * @param request Participants, mode and number of iterations
+     * @return Aggregate statistics
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<SimulationResult>> simulate(@RequestBody SimulationRequest request) {
+        try {
+            return simulationService.simulate(request).thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid simulation request: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        } catch (RejectedExecutionException e) {
+            System.out.println("Simulation rejected: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+    }
+}
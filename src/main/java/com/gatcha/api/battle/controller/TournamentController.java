@@ -0,0 +1,52 @@
+package com.gatcha.api.battle.controller;
+
+import com.gatcha.api.battle.dto.TournamentRequest;
+import com.gatcha.api.battle.dto.TournamentResult;
+import com.gatcha.api.battle.service.TournamentService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Tournament Controller
+ */
+@RestController
+@RequestMapping("/api/tournaments")
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+
+    public TournamentController(TournamentService tournamentService) {
+        this.tournamentService = tournamentService;
+    }
+
+    /**
+     * Run a single-elimination tournament
+     *
+     * @param username Authenticated username
+     * @param request  Monster IDs in seed order
+     * @return Tournament result
+     */
+    @PostMapping
+    public ResponseEntity<TournamentResult> startTournament(
+            @AuthenticationPrincipal String username,
+            @RequestBody TournamentRequest request) {
+        if (request.getMonsterIds() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(tournamentService.startTournament(username, request.getMonsterIds()));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid tournament request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // A monster was settled by a concurrent battle
+            System.out.println("Tournament could not be settled: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gatcha.api.battle.dto;
+
+import com.gatcha.api.battle.model.BattleLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a user's battle history, newest first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BattleHistoryPage {
+    private List<BattleLog> battles;
+    // Cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.gatcha.api.battle.dto;
+
+import com.gatcha.api.battle.model.RoyalRumble;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a user's royal rumble history, newest first, without rounds and battle logs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoyalRumbleHistoryPage {
+    private List<RoyalRumble> rumbles;
+    // Cursor for the next page, null on the last page
+    private String nextCursor;
+}
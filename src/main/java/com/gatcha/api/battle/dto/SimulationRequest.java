@@ -0,0 +1,35 @@
+package com.gatcha.api.battle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Read-only simulation of battles or royal rumbles between template monsters
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationRequest {
+    // "battle" for a one-on-one win-rate matrix, "rumble" for free-for-all win rates
+    private String mode = "battle";
+    // Participants, every template at the given level when empty
+    private List<SimulatedMonster> monsters;
+    private int level = 1;
+    private int iterations = 1000;
+    // Makes the run reproducible, random when absent
+    private Long seed;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SimulatedMonster {
+        private Integer templateId;
+        private int level = 1;
+        // Upgrade level of each skill in template order, the available skill
+        // points are spent at random on every iteration when absent
+        private List<Integer> skillLevels;
+    }
+}
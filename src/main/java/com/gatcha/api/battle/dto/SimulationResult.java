@@ -0,0 +1,31 @@
+package com.gatcha.api.battle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Aggregate statistics of a simulation, monsters are indexed like the request's participants
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationResult {
+    private String mode;
+    private List<SimulationRequest.SimulatedMonster> monsters;
+    // Iterations actually run, one-on-one battles with fixed skill levels are deterministic and run once
+    private int iterations;
+    // Number of battles or rumbles fought
+    private long fights;
+    // Share of its fights each monster won
+    private List<Double> winRates;
+    // Battle mode: share of the battles the row monster won against the column monster, null on the diagonal
+    private List<List<Double>> matchupWinRates;
+    // Battle mode: attacks per battle
+    private double averageTurns;
+    // Rumble mode: rounds per rumble
+    private double averageRounds;
+    private long elapsedMillis;
+}
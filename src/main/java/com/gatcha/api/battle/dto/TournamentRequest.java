@@ -0,0 +1,17 @@
+package com.gatcha.api.battle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Monsters of a tournament, in seed order (the first monster is the top seed)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentRequest {
+    private List<String> monsterIds;
+}
@@ -0,0 +1,45 @@
+package com.gatcha.api.battle.dto;
+
+import com.gatcha.api.monster.model.PlayerMonster;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Single-elimination tournament, every match is stored as a battle log
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentResult {
+    // Winner of the final, after the experience of all its wins was granted
+    private PlayerMonster champion;
+    private List<TournamentRound> rounds;
+    // Experience gained by the champion over all its matches
+    private int experienceGained;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TournamentRound {
+        private int roundNumber;
+        // Matches in bracket order, the winners of matches 2i and 2i+1 meet in the next round
+        private List<TournamentMatch> matches;
+    }
+
+    /**
+     * One match, its actions are served by GET /api/battles/{battleId}
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TournamentMatch {
+        private String battleId;
+        private String monster1Id;
+        private String monster2Id;
+        private String winnerId;
+        private int experienceGained;
+    }
+}
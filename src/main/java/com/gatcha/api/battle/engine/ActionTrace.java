@@ -0,0 +1,106 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.battle.model.BattleLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact record of combat actions, stored as parallel primitive arrays.
+ * Participants are referred to by their index, which keeps the turn loop
+ * free of per-action objects; actions are only materialized on demand.
+ */
+public final class ActionTrace {
+
+    private int size;
+    private int[] attackers;
+    private int[] targets;
+    private int[] skillNums;
+    private int[] damages;
+    private int[] remainingHps;
+
+    public ActionTrace() {
+        this(32);
+    }
+
+    public ActionTrace(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        attackers = new int[capacity];
+        targets = new int[capacity];
+        skillNums = new int[capacity];
+        damages = new int[capacity];
+        remainingHps = new int[capacity];
+    }
+
+    void record(int attacker, int target, int skillNum, int damage, int remainingHp) {
+        if (size == attackers.length) {
+            int capacity = size * 2;
+            attackers = Arrays.copyOf(attackers, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            skillNums = Arrays.copyOf(skillNums, capacity);
+            damages = Arrays.copyOf(damages, capacity);
+            remainingHps = Arrays.copyOf(remainingHps, capacity);
+        }
+        attackers[size] = attacker;
+        targets[size] = target;
+        skillNums[size] = skillNum;
+        damages[size] = damage;
+        remainingHps[size] = remainingHp;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap footprint in bytes
+     */
+    public long estimatedBytes() {
+        // Object header and fields, plus five int arrays with their headers
+        return 40 + 5 * (16 + 4L * attackers.length);
+    }
+
+    public int getAttacker(int index) {
+        return attackers[index];
+    }
+
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    public int getSkillNum(int index) {
+        return skillNums[index];
+    }
+
+    public int getDamage(int index) {
+        return damages[index];
+    }
+
+    public int getRemainingHp(int index) {
+        return remainingHps[index];
+    }
+
+    /**
+     * Materialize the actions for a battle log
+     *
+     * @param participantIds Monster IDs, indexed like the participants of the trace
+     * @return Battle actions in order
+     */
+    public List<BattleLog.BattleAction> toActions(String... participantIds) {
+        List<BattleLog.BattleAction> actions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            actions.add(toAction(i, participantIds));
+        }
+        return actions;
+    }
+
+    /**
+     * Materialize a single action
+     */
+    public BattleLog.BattleAction toAction(int index, String... participantIds) {
+        return new BattleLog.BattleAction(participantIds[attackers[index]], skillNums[index], damages[index],
+                participantIds[targets[index]], remainingHps[index]);
+    }
+}
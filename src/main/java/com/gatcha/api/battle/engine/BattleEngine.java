@@ -0,0 +1,222 @@
+package com.gatcha.api.battle.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Combat core shared by the game modes.
+ * Works on pre-compiled CombatSnapshots, HP as ints and cooldowns as int
+ * arrays indexed like the snapshot's sorted skills, so a turn allocates
+ * nothing besides its entry in the ActionTrace.
+ */
+@Component
+public class BattleEngine {
+
+    private final int maxTurns;
+
+    /**
+     * @param maxTurns Maximum number of attacks in a one-on-one battle, the
+     *                 monster with the higher remaining HP fraction wins beyond it
+     */
+    public BattleEngine(@Value("${battle.max-turns:1000}") int maxTurns) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("Battle turn limit must be positive");
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Fight a one-on-one battle until one monster is down or the turn limit is reached.
+     * The monster with the higher (or equal) vit attacks first, then both
+     * attack in turn; cooldowns tick down after each full round.
+     * <p>
+     * When neither monster scales with its current HP, the damage of a round
+     * only depends on the cooldowns, so once the cooldowns of both monsters
+     * repeat the battle is periodic. The engine then skips whole cycles, up
+     * to the last one before a monster dies or the turn limit, and simulates
+     * the rest. The skipped turns are not in the trace; the outcome is the
+     * same as fighting them.
+     *
+     * @param first  Participant 0
+     * @param second Participant 1
+     * @return Winner and action trace
+     */
+    public BattleOutcome fight(CombatSnapshot first, CombatSnapshot second) {
+        CombatSnapshot[] snapshots = {first, second};
+        int[] hps = {first.getHp(), second.getHp()};
+        int[][] cooldowns = {first.newCooldowns(), second.newCooldowns()};
+        ActionTrace trace = new ActionTrace();
+
+        int opener = first.getVit() >= second.getVit() ? 0 : 1;
+        int responder = 1 - opener;
+        int turns = 0;
+
+        CycleDetector cycle = first.scalesWithHp() || second.scalesWithHp()
+                ? null
+                : new CycleDetector(cooldowns, hps);
+        int fastForwardedAt = -1;
+        int fastForwardedTurns = 0;
+
+        while (turns < maxTurns) {
+            hps[responder] = attack(snapshots[opener], opener, hps[opener], cooldowns[opener],
+                    snapshots[responder], responder, hps[responder], trace);
+            turns++;
+            if (hps[responder] <= 0 || turns == maxTurns)
+                break;
+            hps[opener] = attack(snapshots[responder], responder, hps[responder], cooldowns[responder],
+                    snapshots[opener], opener, hps[opener], trace);
+            turns++;
+            if (hps[opener] <= 0)
+                break;
+
+            tickCooldowns(cooldowns[0]);
+            tickCooldowns(cooldowns[1]);
+
+            if (cycle != null && cycle.advance(cooldowns, hps, turns)) {
+                int cycleTurns = turns - cycle.savedTurns;
+                int damage0 = cycle.savedHps[0] - hps[0];
+                int damage1 = cycle.savedHps[1] - hps[1];
+                // Whole cycles both monsters survive (HP only decreases, so
+                // surviving a cycle's end means surviving all of it)
+                int cycles = Math.min((hps[0] - 1) / damage0, (hps[1] - 1) / damage1);
+                cycles = Math.min(cycles, (maxTurns - turns) / cycleTurns);
+                if (cycles > 0) {
+                    hps[0] -= cycles * damage0;
+                    hps[1] -= cycles * damage1;
+                    turns += cycles * cycleTurns;
+                    fastForwardedAt = trace.size();
+                    fastForwardedTurns = cycles * cycleTurns;
+                }
+                // Less than a cycle is left, simulate it
+                cycle = null;
+            }
+        }
+
+        boolean turnLimitReached = hps[0] > 0 && hps[1] > 0;
+        int winner;
+        if (turnLimitReached) {
+            // Higher remaining HP fraction wins, the opener wins ties
+            long fraction0 = (long) hps[0] * second.getHp();
+            long fraction1 = (long) hps[1] * first.getHp();
+            winner = fraction0 == fraction1 ? opener : (fraction0 > fraction1 ? 0 : 1);
+        } else {
+            winner = hps[0] > 0 ? 0 : 1;
+        }
+        return new BattleOutcome(winner, trace, turns, fastForwardedAt, fastForwardedTurns, turnLimitReached);
+    }
+
+    /**
+     * Perform a single attack with the highest-numbered ready skill, or a
+     * basic attack when all skills are on cooldown.
+     *
+     * @param attacker      Attacking monster
+     * @param attackerIndex Attacker's index in the trace
+     * @param attackerHp    Attacker's current HP (used by HP-based skills)
+     * @param cooldowns     Attacker's cooldowns, updated in place
+     * @param defender      Defending monster
+     * @param defenderIndex Defender's index in the trace
+     * @param defenderHp    Defender's current HP
+     * @param trace         Trace receiving the action, or null when the actions are not needed
+     * @return Defender's remaining HP, never below 0
+     */
+    public int attack(CombatSnapshot attacker, int attackerIndex, int attackerHp, int[] cooldowns,
+            CombatSnapshot defender, int defenderIndex, int defenderHp, ActionTrace trace) {
+        int skill = -1;
+        for (int i = 0; i < cooldowns.length; i++) {
+            if (cooldowns[i] == 0) {
+                skill = i;
+                break;
+            }
+        }
+
+        int damage;
+        int skillNum;
+        if (skill < 0) {
+            // All skills are on cooldown, use basic attack
+            damage = Math.max(1, attacker.getAtk() - (defender.getDef() / 2));
+            skillNum = 0;
+        } else {
+            damage = Math.max(1, (int) attacker.skillDamage(skill, attackerHp) - (defender.getDef() / 3));
+            skillNum = attacker.skillNum(skill);
+            cooldowns[skill] = attacker.skillCooldown(skill);
+        }
+
+        int remainingHp = Math.max(0, defenderHp - damage);
+        if (trace != null) {
+            trace.record(attackerIndex, defenderIndex, skillNum, damage, remainingHp);
+        }
+        return remainingHp;
+    }
+
+    /**
+     * Average damage of the attacker's attacks on the defender at full HP,
+     * without fighting: skills are tried in the same order as in attack, each
+     * one at most once every cooldown + 1 attacks, and basic attacks fill the rest
+     */
+    double averageDamage(CombatSnapshot attacker, CombatSnapshot defender) {
+        double damage = 0;
+        double remaining = 1;
+        for (int i = 0; i < attacker.skillCount() && remaining > 0; i++) {
+            double share = Math.min(remaining, 1.0 / (attacker.skillCooldown(i) + 1));
+            damage += share * Math.max(1, (int) attacker.skillDamage(i, attacker.getHp()) - (defender.getDef() / 3));
+            remaining -= share;
+        }
+        return damage + remaining * Math.max(1, attacker.getAtk() - (defender.getDef() / 2));
+    }
+
+    /**
+     * Decrease all running cooldowns by one
+     */
+    public void tickCooldowns(int[] cooldowns) {
+        for (int i = 0; i < cooldowns.length; i++) {
+            if (cooldowns[i] > 0) {
+                cooldowns[i]--;
+            }
+        }
+    }
+
+    /**
+     * Brent's cycle detection over the cooldowns of both monsters at round
+     * boundaries, remembering the HP and turn count at the saved state so a
+     * detected cycle's damage is known without recording it round by round.
+     */
+    private static final class CycleDetector {
+
+        private final int[][] savedCooldowns;
+        private final int[] savedHps = new int[2];
+        private int savedTurns;
+        private int power = 1;
+        private int length;
+
+        CycleDetector(int[][] cooldowns, int[] hps) {
+            savedCooldowns = new int[][]{cooldowns[0].clone(), cooldowns[1].clone()};
+            savedHps[0] = hps[0];
+            savedHps[1] = hps[1];
+        }
+
+        /**
+         * Register the state after a round
+         *
+         * @return True when the state repeats the saved one, the cycle runs from the saved state to now
+         */
+        boolean advance(int[][] cooldowns, int[] hps, int turns) {
+            length++;
+            if (Arrays.equals(cooldowns[0], savedCooldowns[0])
+                    && Arrays.equals(cooldowns[1], savedCooldowns[1])) {
+                return true;
+            }
+            if (length == power) {
+                System.arraycopy(cooldowns[0], 0, savedCooldowns[0], 0, cooldowns[0].length);
+                System.arraycopy(cooldowns[1], 0, savedCooldowns[1], 0, cooldowns[1].length);
+                savedHps[0] = hps[0];
+                savedHps[1] = hps[1];
+                savedTurns = turns;
+                power *= 2;
+                length = 0;
+            }
+            return false;
+        }
+    }
+}
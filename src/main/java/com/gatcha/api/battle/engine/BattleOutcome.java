@@ -0,0 +1,66 @@
+package com.gatcha.api.battle.engine;
+
+/**
+ * Result of a one-on-one battle between participants 0 and 1
+ */
+public final class BattleOutcome {
+
+    private final int winner;
+    private final ActionTrace trace;
+    private final int turns;
+    private final int fastForwardedAt;
+    private final int fastForwardedTurns;
+    private final boolean turnLimitReached;
+
+    BattleOutcome(int winner, ActionTrace trace, int turns, int fastForwardedAt, int fastForwardedTurns,
+            boolean turnLimitReached) {
+        this.winner = winner;
+        this.trace = trace;
+        this.turns = turns;
+        this.fastForwardedAt = fastForwardedAt;
+        this.fastForwardedTurns = fastForwardedTurns;
+        this.turnLimitReached = turnLimitReached;
+    }
+
+    /**
+     * @return Index of the winning participant, 0 or 1
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return Recorded actions, without the fast-forwarded turns
+     */
+    public ActionTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * @return Number of attacks in the battle, fast-forwarded ones included
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return Trace index before which the turns were skipped, -1 when none were
+     */
+    public int getFastForwardedAt() {
+        return fastForwardedAt;
+    }
+
+    /**
+     * @return Number of attacks skipped by fast-forwarding a repeating cycle
+     */
+    public int getFastForwardedTurns() {
+        return fastForwardedTurns;
+    }
+
+    /**
+     * @return True when the battle was decided by the turn limit tie-break
+     */
+    public boolean isTurnLimitReached() {
+        return turnLimitReached;
+    }
+}
@@ -0,0 +1,179 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, primitive view of a monster for combat.
+ * Skills are pre-sorted by descending skill number (the order in which they
+ * are tried each turn), and everything that does not depend on the opponent
+ * or on current HP is computed once.
+ */
+public final class CombatSnapshot {
+
+    private final String id;
+    private final String element;
+    private final int level;
+    private final int hp;
+    private final int atk;
+    private final int def;
+    private final int vit;
+
+    private final int[] skillNums;
+    private final int[] skillCooldowns;
+    private final int[] skillDamage;
+    private final RatioStat[] ratioStats;
+    private final double[] ratioFactors;
+    // Stat bonus for skills not based on current HP
+    private final double[] fixedBonus;
+    // Every value that influences combat, two snapshots with equal fingerprints fight identically
+    private final long[] fingerprint;
+
+    private CombatSnapshot(PlayerMonster monster) {
+        this.id = monster.getId();
+        this.element = monster.getElement();
+        this.level = monster.getLevel();
+        this.hp = monster.getHp();
+        this.atk = monster.getAtk();
+        this.def = monster.getDef();
+        this.vit = monster.getVit();
+
+        List<Skill> skills = new ArrayList<>(monster.getSkills() != null ? monster.getSkills() : List.of());
+        skills.sort(Comparator.comparing(Skill::getNum).reversed());
+
+        int count = skills.size();
+        skillNums = new int[count];
+        skillCooldowns = new int[count];
+        skillDamage = new int[count];
+        ratioStats = new RatioStat[count];
+        ratioFactors = new double[count];
+        fixedBonus = new double[count];
+        for (int i = 0; i < count; i++) {
+            Skill skill = skills.get(i);
+            skillNums[i] = skill.getNum();
+            skillCooldowns[i] = skill.getCooldown();
+            skillDamage[i] = skill.getDmg();
+            if (skill.getRatio() != null) {
+                ratioStats[i] = RatioStat.from(skill.getRatio().getStat());
+                ratioFactors[i] = skill.getRatio().getPercent() / 100.0;
+            } else {
+                ratioStats[i] = RatioStat.NONE;
+            }
+            switch (ratioStats[i]) {
+                case ATK:
+                    fixedBonus[i] = atk * ratioFactors[i];
+                    break;
+                case DEF:
+                    fixedBonus[i] = def * ratioFactors[i];
+                    break;
+                case VIT:
+                    fixedBonus[i] = vit * ratioFactors[i];
+                    break;
+                default:
+                    fixedBonus[i] = 0;
+            }
+        }
+
+        fingerprint = new long[4 + count * 5];
+        fingerprint[0] = hp;
+        fingerprint[1] = atk;
+        fingerprint[2] = def;
+        fingerprint[3] = vit;
+        for (int i = 0; i < count; i++) {
+            int offset = 4 + i * 5;
+            fingerprint[offset] = skillNums[i];
+            fingerprint[offset + 1] = skillCooldowns[i];
+            fingerprint[offset + 2] = skillDamage[i];
+            fingerprint[offset + 3] = ratioStats[i].ordinal();
+            fingerprint[offset + 4] = Double.doubleToLongBits(ratioFactors[i]);
+        }
+    }
+
+    /**
+     * Compile a monster into a snapshot
+     *
+     * @param monster Monster to compile
+     * @return Snapshot
+     */
+    public static CombatSnapshot of(PlayerMonster monster) {
+        return new CombatSnapshot(monster);
+    }
+
+    /**
+     * Fresh cooldown counters, all skills ready
+     */
+    public int[] newCooldowns() {
+        return new int[skillNums.length];
+    }
+
+    /**
+     * Raw skill damage before defense reduction
+     *
+     * @param skill     Skill index in the sorted order
+     * @param currentHp Current HP of this monster
+     */
+    double skillDamage(int skill, int currentHp) {
+        double bonus = ratioStats[skill] == RatioStat.HP ? currentHp * ratioFactors[skill] : fixedBonus[skill];
+        return skillDamage[skill] + bonus;
+    }
+
+    /**
+     * Whether any skill's damage depends on this monster's current HP
+     */
+    boolean scalesWithHp() {
+        for (RatioStat stat : ratioStats) {
+            if (stat == RatioStat.HP) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long[] fingerprint() {
+        return fingerprint;
+    }
+
+    int skillCount() {
+        return skillNums.length;
+    }
+
+    int skillNum(int skill) {
+        return skillNums[skill];
+    }
+
+    int skillCooldown(int skill) {
+        return skillCooldowns[skill];
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getElement() {
+        return element;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getHp() {
+        return hp;
+    }
+
+    public int getAtk() {
+        return atk;
+    }
+
+    public int getDef() {
+        return def;
+    }
+
+    public int getVit() {
+        return vit;
+    }
+}
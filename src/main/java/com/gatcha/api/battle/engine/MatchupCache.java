@@ -0,0 +1,103 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.utils.LruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes one-on-one battle outcomes.
+ * Battles are deterministic and monsters summoned from the same template
+ * start out identical, so the same matchups are fought over and over. The
+ * cached outcome only refers to participants by index and can be
+ * materialized for any pair of monster IDs.
+ */
+@Component
+public class MatchupCache implements MeterBinder {
+
+    private final BattleEngine battleEngine;
+    // Null when memoization is disabled (max-size 0)
+    private final LruCache<MatchupKey, BattleOutcome> outcomes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    public MatchupCache(BattleEngine battleEngine,
+            @Value("${battle.matchup-cache.max-size:10000}") int maxSize) {
+        this.battleEngine = battleEngine;
+        this.outcomes = maxSize > 0
+                ? new LruCache<>(maxSize, (key, outcome) -> estimatedBytes.addAndGet(-footprint(key, outcome)))
+                : null;
+    }
+
+    /**
+     * Fight a one-on-one battle, reusing the outcome of an identical earlier matchup
+     *
+     * @param first  Participant 0
+     * @param second Participant 1
+     * @return Winner and action trace, shared between callers and must not be modified
+     */
+    public BattleOutcome fight(CombatSnapshot first, CombatSnapshot second) {
+        if (outcomes == null) {
+            return battleEngine.fight(first, second);
+        }
+
+        MatchupKey key = new MatchupKey(first, second);
+        BattleOutcome outcome = outcomes.get(key);
+        if (outcome != null) {
+            hits.increment();
+            return outcome;
+        }
+
+        misses.increment();
+        outcome = battleEngine.fight(first, second);
+        BattleOutcome previous = outcomes.put(key, outcome);
+        estimatedBytes.addAndGet(footprint(key, outcome) - (previous != null ? footprint(key, previous) : 0));
+        return outcome;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return outcomes != null ? outcomes.size() : 0;
+    }
+
+    /**
+     * Approximate heap used by the cached keys and outcomes, in bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("battle.matchup.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("battle.matchup.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("battle.matchup.cache.size", this, MatchupCache::size)
+                .register(registry);
+        Gauge.builder("battle.matchup.cache.memory", estimatedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static long footprint(MatchupKey key, BattleOutcome outcome) {
+        // Map entry plus key and outcome
+        return 64 + key.estimatedBytes() + 16 + outcome.getTrace().estimatedBytes();
+    }
+}
@@ -0,0 +1,47 @@
+package com.gatcha.api.battle.engine;
+
+import java.util.Arrays;
+
+/**
+ * Cache key identifying a matchup by the combat fingerprints of both sides.
+ * Order matters: participant 0 and 1 are not interchangeable (ties in vit
+ * favor participant 0). Equality compares the full fingerprints, so hash
+ * collisions never mix up matchups.
+ */
+final class MatchupKey {
+
+    private final long[] first;
+    private final long[] second;
+    private final int hash;
+
+    MatchupKey(CombatSnapshot first, CombatSnapshot second) {
+        this.first = first.fingerprint();
+        this.second = second.fingerprint();
+        this.hash = 31 * Arrays.hashCode(this.first) + Arrays.hashCode(this.second);
+    }
+
+    /**
+     * Approximate heap footprint in bytes, the fingerprint arrays are shared with the snapshots
+     * but outlive them in the cache
+     */
+    long estimatedBytes() {
+        return 24 + 2 * 16 + 8L * (first.length + second.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MatchupKey)) {
+            return false;
+        }
+        MatchupKey other = (MatchupKey) o;
+        return hash == other.hash && Arrays.equals(first, other.first) && Arrays.equals(second, other.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
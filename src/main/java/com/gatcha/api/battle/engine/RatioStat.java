@@ -0,0 +1,36 @@
+package com.gatcha.api.battle.engine;
+
+/**
+ * Attacker stat a skill's damage ratio is based on
+ */
+public enum RatioStat {
+    ATK,
+    DEF,
+    HP,
+    VIT,
+    NONE;
+
+    /**
+     * Resolve the stat stored in Skill.Ratio; unknown or missing stats give no bonus
+     *
+     * @param stat Stat name, e.g. "atk"
+     * @return Matching stat, or NONE
+     */
+    public static RatioStat from(String stat) {
+        if (stat == null) {
+            return NONE;
+        }
+        switch (stat) {
+            case "atk":
+                return ATK;
+            case "def":
+                return DEF;
+            case "hp":
+                return HP;
+            case "vit":
+                return VIT;
+            default:
+                return NONE;
+        }
+    }
+}
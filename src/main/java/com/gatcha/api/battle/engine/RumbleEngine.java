@@ -0,0 +1,143 @@
+package com.gatcha.api.battle.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Free-for-all combat on top of the BattleEngine attack rules.
+ * Each round the surviving monsters attack in a random order, each one a
+ * random other survivor, until a single monster is left. Participants are
+ * handled by index over primitive HP and cooldown arrays.
+ */
+@Component
+public class RumbleEngine {
+
+    private final BattleEngine battleEngine;
+
+    public RumbleEngine(BattleEngine battleEngine) {
+        this.battleEngine = battleEngine;
+    }
+
+    /**
+     * Fight a royal rumble until one monster is left
+     *
+     * @param participants Monsters, at least two
+     * @param random       Source of the attack order and targets
+     * @param trace        Trace receiving the actions, or null when only the result is needed
+     * @return Winner index, number of rounds and the trace with its round boundaries
+     */
+    public RumbleOutcome fight(CombatSnapshot[] participants, RandomGenerator random, ActionTrace trace) {
+        int count = participants.length;
+        if (count < 2) {
+            throw new IllegalArgumentException("At least 2 monsters are required for a rumble");
+        }
+
+        int[] hps = new int[count];
+        int[][] cooldowns = new int[count][];
+        // Survivors in no particular order, and each monster's slot in it
+        int[] alive = new int[count];
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            hps[i] = participants[i].getHp();
+            cooldowns[i] = participants[i].newCooldowns();
+            alive[i] = i;
+            slots[i] = i;
+        }
+        int aliveCount = count;
+        int[] order = new int[count];
+        int rounds = 0;
+        int[] roundEnds = trace != null ? new int[16] : null;
+
+        while (aliveCount > 1) {
+            rounds++;
+
+            // Attack order for the round, a shuffled copy of the survivors
+            System.arraycopy(alive, 0, order, 0, aliveCount);
+            int roundSize = aliveCount;
+            for (int i = roundSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            for (int k = 0; k < roundSize && aliveCount > 1; k++) {
+                int attacker = order[k];
+                if (hps[attacker] <= 0) {
+                    continue;
+                }
+
+                int target = randomTarget(alive, aliveCount, attacker, random);
+                hps[target] = battleEngine.attack(participants[attacker], attacker, hps[attacker], cooldowns[attacker],
+                        participants[target], target, hps[target], trace);
+                if (hps[target] <= 0) {
+                    // Swap-remove the defeated monster from the survivors
+                    int last = alive[--aliveCount];
+                    alive[slots[target]] = last;
+                    slots[last] = slots[target];
+                }
+            }
+
+            for (int i = 0; i < aliveCount; i++) {
+                battleEngine.tickCooldowns(cooldowns[alive[i]]);
+            }
+
+            if (trace != null) {
+                if (rounds > roundEnds.length) {
+                    roundEnds = Arrays.copyOf(roundEnds, roundEnds.length * 2);
+                }
+                roundEnds[rounds - 1] = trace.size();
+            }
+        }
+
+        return new RumbleOutcome(alive[0], rounds, trace, roundEnds);
+    }
+
+    /**
+     * Estimate the number of attacks of a rumble without fighting it, as
+     * participants x rounds. Each survivor is hit about once per round, so a
+     * monster lasts about as many rounds as the average attacks of the others
+     * it takes to bring it down, and the rumble lasts about as long as its
+     * second most resilient monster. Counting every participant in every
+     * round makes up for the last survivors outlasting that average.
+     *
+     * @param participants Monsters, at least two
+     * @return Estimated number of attacks
+     */
+    public long estimateAttacks(CombatSnapshot[] participants) {
+        int count = participants.length;
+        if (count < 2) {
+            throw new IllegalArgumentException("At least 2 monsters are required for a rumble");
+        }
+
+        long longest = 0;
+        long secondLongest = 0;
+        for (int i = 0; i < count; i++) {
+            double damage = 0;
+            for (int attacker = 0; attacker < count; attacker++) {
+                if (attacker != i) {
+                    damage += battleEngine.averageDamage(participants[attacker], participants[i]);
+                }
+            }
+            long hits = (long) Math.ceil(participants[i].getHp() * (count - 1) / damage);
+            if (hits > longest) {
+                secondLongest = longest;
+                longest = hits;
+            } else if (hits > secondLongest) {
+                secondLongest = hits;
+            }
+        }
+        return count * Math.max(1, secondLongest);
+    }
+
+    /**
+     * Uniformly pick a survivor other than the attacker in O(1)
+     */
+    private static int randomTarget(int[] alive, int aliveCount, int attacker, RandomGenerator random) {
+        int target = alive[random.nextInt(aliveCount - 1)];
+        // Drawing the attacker's slot stands for the last slot, which was left out of the draw
+        return target == attacker ? alive[aliveCount - 1] : target;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gatcha.api.battle.engine;
+
+/**
+ * Result of a royal rumble, participants are referred to by index
+ */
+public final class RumbleOutcome {
+
+    private final int winner;
+    private final int rounds;
+    private final ActionTrace trace;
+    // Trace size at the end of each round, may be longer than the number of rounds
+    private final int[] roundEnds;
+
+    RumbleOutcome(int winner, int rounds, ActionTrace trace, int[] roundEnds) {
+        this.winner = winner;
+        this.rounds = rounds;
+        this.trace = trace;
+        this.roundEnds = roundEnds;
+    }
+
+    /**
+     * @return Index of the last monster standing
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return Action trace, null when the rumble was fought without one
+     */
+    public ActionTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * @param round Round index, from 0
+     * @return Index of the first action after the round in the trace
+     */
+    public int getRoundEnd(int round) {
+        return roundEnds[round];
+    }
+}
@@ -1,9 +1,12 @@
 package com.gatcha.api.battle.model;
 
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -14,16 +17,27 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "battleLogs")
+@CompoundIndex(name = "username_battleDate", def = "{'username': 1, 'battleDate': -1, '_id': -1}")
 public class BattleLog {
     @Id
     private String id;
+    private String username;
     private String monster1Id;
     private String monster2Id;
     private String monster1Element;
     private String monster2Element;
     private String winnerId;
     private Date battleDate;
+    private int experienceGained;
     private List<BattleAction> actions = new ArrayList<>();
+    // Number of attacks, including the fast-forwarded ones missing from the actions
+    private int turns;
+    private int fastForwardedTurns;
+    // Decided by the remaining HP fraction once the turn limit was reached
+    private boolean turnLimitReached;
+    // Combat stats of both monsters, stored instead of the actions in compact storage mode
+    private CombatantStats monster1Stats;
+    private CombatantStats monster2Stats;
 
     @Data
     @NoArgsConstructor
@@ -35,4 +49,40 @@ public class BattleLog {
         private String targetId;
         private int remainingHp;
     }
-}
\ No newline at end of file
+
+    /**
+     * Everything the battle engine needs to replay a monster's side of a battle
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CombatantStats {
+        private int level;
+        private int hp;
+        private int atk;
+        private int def;
+        private int vit;
+        private List<Skill> skills;
+
+        public static CombatantStats of(PlayerMonster monster) {
+            return new CombatantStats(monster.getLevel(), monster.getHp(), monster.getAtk(), monster.getDef(),
+                    monster.getVit(), monster.getSkills());
+        }
+
+        /**
+         * Rebuild the monster as it was at battle time
+         */
+        public PlayerMonster toMonster(String id, String element) {
+            PlayerMonster monster = new PlayerMonster();
+            monster.setId(id);
+            monster.setElement(element);
+            monster.setLevel(level);
+            monster.setHp(hp);
+            monster.setAtk(atk);
+            monster.setDef(def);
+            monster.setVit(vit);
+            monster.setSkills(skills);
+            return monster;
+        }
+    }
+}
@@ -1,32 +1,52 @@
-package com.gatcha.api.battle.dto;
+package com.gatcha.api.battle.model;
 
-import com.gatcha.api.battle.model.BattleLog;
 import com.gatcha.api.monster.model.PlayerMonster;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 /**
- * Royal Rumble Result DTO
+ * Royal Rumble record, owned by the user who started it
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class RoyalRumbleResult {
+@Document(collection = "royalRumbles")
+@CompoundIndex(name = "username_rumbleDate", def = "{'username': 1, 'rumbleDate': -1, '_id': -1}")
+public class RoyalRumble {
     /**
      * Royal Rumble ID
      */
+    @Id
     private String id;
 
+    /**
+     * Owner of the participating monsters
+     */
+    private String username;
+
     /**
      * List of monster IDs participating in the Royal Rumble
      */
     private List<String> participantIds;
 
+    /**
+     * Element of each participant, in the same order as participantIds
+     */
+    private List<String> participantElements;
+
+    /**
+     * Display name of each participant at the time of the rumble, in the same order
+     * as participantIds. Missing on rumbles stored before names were kept
+     */
+    private List<String> participantNames;
+
     /**
      * Winner monster
      */
@@ -48,9 +68,10 @@ public class RoyalRumbleResult {
     private int experienceGained;
 
     /**
-     * Battle log messages
+     * Battle log messages, only rendered from the rounds on request and not stored
+     * for new rumbles
      */
-    private List<String> battleLog = new ArrayList<>();
+    private List<String> battleLog;
 
     /**
      * Royal Rumble round
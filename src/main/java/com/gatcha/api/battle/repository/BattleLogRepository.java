@@ -1,9 +1,13 @@
 package com.gatcha.api.battle.repository;
 
 import com.gatcha.api.battle.model.BattleLog;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +16,15 @@ public interface BattleLogRepository extends MongoRepository<BattleLog, String>
     List<BattleLog> findByMonster1IdOrMonster2Id(String monster1Id, String monster2Id);
 
     Optional<BattleLog> findById(String id);
-}
\ No newline at end of file
+
+    List<BattleLog> findByUsername(String username, Pageable pageable);
+
+    /**
+     * Battles of a user strictly after the given (battleDate, id) position in
+     * descending order, served by the (username, battleDate, _id) index
+     */
+    @Query("{ 'username': ?0, '$or': [ { 'battleDate': { '$lt': ?1 } }, { 'battleDate': ?1, '_id': { '$lt': ?2 } } ] }")
+    List<BattleLog> findByUsernameBefore(String username, Date battleDate, ObjectId id, Pageable pageable);
+
+    long countByUsername(String username);
+}
@@ -0,0 +1,37 @@
+package com.gatcha.api.battle.repository;
+
+import com.gatcha.api.battle.model.RoyalRumble;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RoyalRumbleRepository extends MongoRepository<RoyalRumble, String> {
+
+    /**
+     * Rumble of a given user, empty when it does not exist or belongs to someone else
+     */
+    Optional<RoyalRumble> findByIdAndUsername(String id, String username);
+
+    /**
+     * Rumbles of a user without their rounds and battle log, served by the
+     * (username, rumbleDate, _id) index
+     */
+    @Query(value = "{ 'username': ?0 }", fields = "{ 'rounds': 0, 'battleLog': 0 }")
+    List<RoyalRumble> findSummariesByUsername(String username, Pageable pageable);
+
+    /**
+     * Rumbles of a user strictly after the given (rumbleDate, id) position in
+     * descending order, without their rounds and battle log
+     */
+    @Query(value = "{ 'username': ?0, '$or': [ { 'rumbleDate': { '$lt': ?1 } }, { 'rumbleDate': ?1, '_id': { '$lt': ?2 } } ] }",
+            fields = "{ 'rounds': 0, 'battleLog': 0 }")
+    List<RoyalRumble> findSummariesByUsernameBefore(String username, Date rumbleDate, ObjectId id,
+            Pageable pageable);
+}
@@ -1,17 +1,28 @@
 package com.gatcha.api.battle.service;
 
+import com.gatcha.api.battle.dto.BattleHistoryPage;
 import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.monster.model.PlayerMonster;
 
 import java.util.List;
 
 public interface BattleService {
     BattleLog battle(String monster1Id, String monster2Id, String username);
 
+    /**
+     * Fight two loaded monsters without settling the result
+     *
+     * @return Unsaved battle log with its winner and experience gained
+     */
+    BattleLog fight(PlayerMonster monster1, PlayerMonster monster2, String username);
+
     BattleLog getBattleById(String battleId);
 
     List<BattleLog> getBattlesByMonsterId(String monsterId);
 
     int getExperienceGained(String battleId);
 
-    List<BattleLog> getAllBattles();
+    BattleHistoryPage getBattleHistory(String username, String cursor, int limit);
+
+    long countBattles(String username);
 }
\ No newline at end of file
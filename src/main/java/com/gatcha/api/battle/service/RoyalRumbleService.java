@@ -1,6 +1,7 @@
 package com.gatcha.api.battle.service;
 
-import com.gatcha.api.battle.dto.RoyalRumbleResult;
+import com.gatcha.api.battle.dto.RoyalRumbleHistoryPage;
+import com.gatcha.api.battle.model.RoyalRumble;
 import java.util.List;
 
 /**
@@ -16,7 +17,7 @@ public interface RoyalRumbleService {
      * @param username username
      * @return royal rumble result
      */
-    RoyalRumbleResult startRoyalRumble(String username);
+    RoyalRumble startRoyalRumble(String username);
 
     /**
      * Start a royal rumble with specific monsters
@@ -25,20 +26,44 @@ public interface RoyalRumbleService {
      * @param monsterIds list of monster IDs to participate
      * @return royal rumble result
      */
-    RoyalRumbleResult startRoyalRumble(String username, List<String> monsterIds);
+    RoyalRumble startRoyalRumble(String username, List<String> monsterIds);
 
     /**
-     * Get experience reward from the most recent royal rumble
+     * Get experience reward from a royal rumble of the user
      * 
+     * @param username username
      * @param rumbleId royal rumble ID
      * @return experience reward
+     * @throws IllegalArgumentException when the user has no such royal rumble
+     */
+    int getExperienceGained(String username, String rumbleId);
+
+    /**
+     * Get one page of a user's royal rumble history, newest first, without rounds
+     * and battle logs
+     * 
+     * @param username username
+     * @param cursor   cursor returned with the previous page, null for the first page
+     * @param limit    maximum number of rumbles on the page
+     * @return page of royal rumbles
+     */
+    RoyalRumbleHistoryPage getRumbleHistory(String username, String cursor, int limit);
+
+    /**
+     * Get the battle log of a stored royal rumble of the user
+     * 
+     * @param username username
+     * @param rumbleId royal rumble ID
+     * @return battle log messages
+     * @throws IllegalArgumentException when the user has no such royal rumble
      */
-    int getExperienceGained(String rumbleId);
+    List<String> getBattleLog(String username, String rumbleId);
 
     /**
-     * Get all royal rumble history
+     * Render the battle log of a royal rumble from its rounds
      * 
-     * @return list of royal rumble results
+     * @param result royal rumble result
+     * @return battle log messages
      */
-    List<RoyalRumbleResult> getAllRumbles();
-}
\ No newline at end of file
+    List<String> renderBattleLog(RoyalRumble result);
+}
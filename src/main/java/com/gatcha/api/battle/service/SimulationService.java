@@ -0,0 +1,23 @@
+package com.gatcha.api.battle.service;
+
+import com.gatcha.api.battle.dto.SimulationRequest;
+import com.gatcha.api.battle.dto.SimulationResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simulation Service Interface
+ * Runs battles or royal rumbles between monsters built from templates, in
+ * parallel and without reading or writing any player data
+ */
+public interface SimulationService {
+
+    /**
+     * Start a simulation on the simulation pool
+     *
+     * @param request participants, mode and number of iterations
+     * @return aggregate statistics, completed once every iteration has run
+     * @throws IllegalArgumentException when the request is invalid
+     */
+    CompletableFuture<SimulationResult> simulate(SimulationRequest request);
+}
@@ -0,0 +1,25 @@
+package com.gatcha.api.battle.service;
+
+import com.gatcha.api.battle.dto.TournamentResult;
+
+import java.util.List;
+
+/**
+ * Tournament Service Interface
+ * Monsters are seeded into a single-elimination bracket, each loser is removed
+ * and each winner gains the experience of a battle
+ */
+public interface TournamentService {
+
+    /**
+     * Run a tournament between the given monsters
+     *
+     * @param username   username
+     * @param monsterIds monster IDs in seed order, a power of two of them
+     * @return tournament result
+     * @throws IllegalArgumentException when the number of monsters is not a supported power of two
+     *                                  or a monster does not belong to the user
+     * @throws IllegalStateException    when a monster was removed by a concurrent battle
+     */
+    TournamentResult startTournament(String username, List<String> monsterIds);
+}
@@ -1,12 +1,20 @@
 package com.gatcha.api.battle.service.impl;
 
+import com.gatcha.api.battle.engine.MatchupCache;
+import com.gatcha.api.battle.engine.BattleOutcome;
+import com.gatcha.api.battle.engine.CombatSnapshot;
+import com.gatcha.api.battle.dto.BattleHistoryPage;
 import com.gatcha.api.battle.model.BattleLog;
 import com.gatcha.api.battle.repository.BattleLogRepository;
 import com.gatcha.api.battle.service.BattleService;
+import com.gatcha.api.battle.settlement.BattleSettlement;
 import com.gatcha.api.monster.model.PlayerMonster;
-import com.gatcha.api.monster.model.Skill;
 import com.gatcha.api.monster.service.MonsterService;
-import com.gatcha.api.player.service.PlayerService;
+import com.gatcha.api.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -14,17 +22,27 @@ import java.util.*;
 @Service
 public class BattleServiceImpl implements BattleService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "battleDate", "id");
+
     private final BattleLogRepository battleLogRepository;
     private final MonsterService monsterService;
-    private final PlayerService playerService;
-    // Store the experience gained from the most recent battle
-    private final Map<String, Integer> battleExperienceGained = new HashMap<>();
+    private final BattleSettlement battleSettlement;
+    private final MatchupCache matchupCache;
+    // Experience gained by recent battles, the battle log is the source of truth
+    private final LruCache<String, Integer> battleExperienceGained;
+
+    @Value("${battle.storage-mode:full}")
+    private String storageMode;
 
     public BattleServiceImpl(BattleLogRepository battleLogRepository, MonsterService monsterService,
-            PlayerService playerService) {
+            BattleSettlement battleSettlement, MatchupCache matchupCache,
+            @Value("${battle.experience-cache.max-size:1000}") int experienceCacheSize) {
         this.battleLogRepository = battleLogRepository;
         this.monsterService = monsterService;
-        this.playerService = playerService;
+        this.battleSettlement = battleSettlement;
+        this.matchupCache = matchupCache;
+        this.battleExperienceGained = new LruCache<>(experienceCacheSize);
     }
 
     @Override
@@ -32,82 +50,42 @@ public class BattleServiceImpl implements BattleService {
         PlayerMonster monster1 = monsterService.getMonsterById(monster1Id, username);
         PlayerMonster monster2 = monsterService.getMonsterById(monster2Id, username);
 
-        // Create battle log
-        BattleLog battleLog = new BattleLog();
-        battleLog.setMonster1Id(monster1Id);
-        battleLog.setMonster2Id(monster2Id);
-        battleLog.setMonster1Element(monster1.getElement());
-        battleLog.setMonster2Element(monster2.getElement());
-        battleLog.setBattleDate(new Date());
-        battleLog.setActions(new ArrayList<>());
-
-        // Copy monster attributes for battle
-        int hp1 = monster1.getHp();
-        int hp2 = monster2.getHp();
-
-        // Determine who attacks first based on speed
-        boolean monster1First = monster1.getVit() >= monster2.getVit();
-
-        // Skill cooldown counters
-        Map<Integer, Integer> cooldowns1 = initCooldowns(monster1);
-        Map<Integer, Integer> cooldowns2 = initCooldowns(monster2);
-
-        // Battle loop
-        while (hp1 > 0 && hp2 > 0) {
-            if (monster1First) {
-                // Monster 1 attacks
-                hp2 = performAttack(monster1, monster2, hp1, hp2, cooldowns1, battleLog, true);
-                if (hp2 <= 0)
-                    break;
-
-                // Monster 2 attacks
-                hp1 = performAttack(monster2, monster1, hp2, hp1, cooldowns2, battleLog, false);
-            } else {
-                // Monster 2 attacks
-                hp1 = performAttack(monster2, monster1, hp2, hp1, cooldowns2, battleLog, false);
-                if (hp1 <= 0)
-                    break;
-
-                // Monster 1 attacks
-                hp2 = performAttack(monster1, monster2, hp1, hp2, cooldowns1, battleLog, true);
-            }
-
-            // Update cooldowns
-            updateCooldowns(cooldowns1);
-            updateCooldowns(cooldowns2);
-        }
-
-        // Set the winner
-        String winnerId = hp1 > 0 ? monster1Id : monster2Id;
-        battleLog.setWinnerId(winnerId);
+        // Compile both monsters once and run the battle on the primitive snapshots
+        BattleOutcome outcome = matchupCache.fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+        BattleLog battleLog = toBattleLog(monster1, monster2, username, outcome);
 
-        // Add experience to the winning monster
-        // Calculate experience gained: base experience + defeated monster level * 10
-        PlayerMonster winner = hp1 > 0 ? monster1 : monster2;
-        PlayerMonster loser = hp1 > 0 ? monster2 : monster1;
-        int expGained = 20 + (loser.getLevel() * 10);
+        // Remove the loser, grant the winner's experience and save the log in one settlement
+        String loserId = battleLog.getWinnerId().equals(monster1Id) ? monster2Id : monster1Id;
+        BattleLog savedBattleLog = battleSettlement.settle(battleLog, loserId);
 
-        // Save battle log
-        BattleLog savedBattleLog = battleLogRepository.save(battleLog);
-
-        // Call MonsterService's addExperience method to add experience to the winning
-        // monster
-        monsterService.addExperience(winnerId, username, expGained);
+        // The response always carries the actions
+        if (savedBattleLog.getActions() == null) {
+            savedBattleLog.setActions(outcome.getTrace().toActions(monster1Id, monster2Id));
+        }
 
         // Store the experience gained from this battle
-        battleExperienceGained.put(savedBattleLog.getId(), expGained);
-
-        // Remove the losing monster from player's collection
-        String loserId = hp1 > 0 ? monster2Id : monster1Id;
-        playerService.removeMonster(username, loserId);
+        battleExperienceGained.put(savedBattleLog.getId(), savedBattleLog.getExperienceGained());
 
         return savedBattleLog;
     }
 
+    @Override
+    public BattleLog fight(PlayerMonster monster1, PlayerMonster monster2, String username) {
+        BattleOutcome outcome = matchupCache.fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+        return toBattleLog(monster1, monster2, username, outcome);
+    }
+
     @Override
     public BattleLog getBattleById(String battleId) {
-        return battleLogRepository.findById(battleId)
+        BattleLog battleLog = battleLogRepository.findById(battleId)
                 .orElseThrow(() -> new RuntimeException("Battle not found"));
+
+        // Compact battle logs are replayed from the stored stats. They are stored without
+        // actions, which are read back as an empty list rather than null
+        if (battleLog.getMonster1Stats() != null && battleLog.getMonster2Stats() != null) {
+            battleLog.setActions(replay(battleLog));
+        }
+        return battleLog;
     }
 
     @Override
@@ -117,104 +95,96 @@ public class BattleServiceImpl implements BattleService {
 
     @Override
     public int getExperienceGained(String battleId) {
-        return battleExperienceGained.getOrDefault(battleId, 0);
+        Integer cached = battleExperienceGained.get(battleId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Not cached on this node (evicted, restarted or fought elsewhere), read the battle log
+        Optional<BattleLog> battleLog = battleLogRepository.findById(battleId);
+        if (battleLog.isEmpty()) {
+            return 0;
+        }
+        int experienceGained = battleLog.get().getExperienceGained();
+        battleExperienceGained.put(battleId, experienceGained);
+        return experienceGained;
     }
 
     @Override
-    public List<BattleLog> getAllBattles() {
-        return battleLogRepository.findAll();
-    }
+    public BattleHistoryPage getBattleHistory(String username, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        // Fetch one extra battle to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1, HISTORY_ORDER);
+        List<BattleLog> battles;
+        if (cursor == null || cursor.isEmpty()) {
+            battles = battleLogRepository.findByUsername(username, pageable);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            battles = battleLogRepository.findByUsernameBefore(username, position.getDate(), position.getId(),
+                    pageable);
+        }
 
-    private Map<Integer, Integer> initCooldowns(PlayerMonster monster) {
-        Map<Integer, Integer> cooldowns = new HashMap<>();
-        for (Skill skill : monster.getSkills()) {
-            cooldowns.put(skill.getNum(), 0);
+        String nextCursor = null;
+        if (battles.size() > pageSize) {
+            battles = new ArrayList<>(battles.subList(0, pageSize));
+            BattleLog last = battles.get(pageSize - 1);
+            nextCursor = HistoryCursor.encode(last.getBattleDate(), last.getId());
         }
-        return cooldowns;
+        return new BattleHistoryPage(battles, nextCursor);
     }
 
-    private void updateCooldowns(Map<Integer, Integer> cooldowns) {
-        for (Map.Entry<Integer, Integer> entry : cooldowns.entrySet()) {
-            if (entry.getValue() > 0) {
-                cooldowns.put(entry.getKey(), entry.getValue() - 1);
-            }
-        }
+    @Override
+    public long countBattles(String username) {
+        return battleLogRepository.countByUsername(username);
     }
 
-    private int performAttack(PlayerMonster attacker, PlayerMonster defender, int attackerHp, int defenderHp,
-            Map<Integer, Integer> cooldowns, BattleLog battleLog, boolean isMonster1) {
-        // Sort skills by skill number in descending order
-        List<Skill> skills = new ArrayList<>(attacker.getSkills());
-        skills.sort(Comparator.comparing(Skill::getNum).reversed());
-
-        // Select available skill
-        Skill selectedSkill = null;
-        for (Skill skill : skills) {
-            if (cooldowns.get(skill.getNum()) == 0) {
-                selectedSkill = skill;
-                break;
-            }
+    /**
+     * Battle log of a fought battle, with its winner and experience gained, ready to be settled
+     */
+    private BattleLog toBattleLog(PlayerMonster monster1, PlayerMonster monster2, String username,
+            BattleOutcome outcome) {
+        BattleLog battleLog = new BattleLog();
+        battleLog.setUsername(username);
+        battleLog.setMonster1Id(monster1.getId());
+        battleLog.setMonster2Id(monster2.getId());
+        battleLog.setMonster1Element(monster1.getElement());
+        battleLog.setMonster2Element(monster2.getElement());
+        battleLog.setBattleDate(new Date());
+        battleLog.setTurns(outcome.getTurns());
+        battleLog.setFastForwardedTurns(outcome.getFastForwardedTurns());
+        battleLog.setTurnLimitReached(outcome.isTurnLimitReached());
+
+        if (isCompactStorage()) {
+            // Battles are deterministic, so the stats are enough to replay the actions on demand
+            battleLog.setActions(null);
+            battleLog.setMonster1Stats(BattleLog.CombatantStats.of(monster1));
+            battleLog.setMonster2Stats(BattleLog.CombatantStats.of(monster2));
+        } else {
+            battleLog.setActions(outcome.getTrace().toActions(monster1.getId(), monster2.getId()));
         }
 
-        if (selectedSkill == null) {
-            // All skills are on cooldown, use basic attack
-            int damage = attacker.getAtk() - (defender.getDef() / 2);
-            damage = Math.max(1, damage); // At least 1 damage
-
-            defenderHp -= damage;
+        // Set the winner
+        boolean monster1Won = outcome.getWinner() == 0;
+        battleLog.setWinnerId(monster1Won ? monster1.getId() : monster2.getId());
 
-            // Record battle action
-            BattleLog.BattleAction action = new BattleLog.BattleAction();
-            action.setMonsterId(isMonster1 ? attacker.getId() : attacker.getId());
-            action.setSkillNum(0); // Basic attack
-            action.setDamage(damage);
-            action.setTargetId(isMonster1 ? defender.getId() : defender.getId());
-            action.setRemainingHp(Math.max(0, defenderHp));
+        // Experience for the winning monster
+        // Calculate experience gained: base experience + defeated monster level * 10
+        PlayerMonster loser = monster1Won ? monster2 : monster1;
+        battleLog.setExperienceGained(20 + (loser.getLevel() * 10));
+        return battleLog;
+    }
 
-            battleLog.getActions().add(action);
-        } else {
-            // Use selected skill
-            int baseDamage = selectedSkill.getDmg();
-
-            // Calculate stat bonus
-            double statBonus = 0;
-            String statType = selectedSkill.getRatio().getStat();
-            double percent = selectedSkill.getRatio().getPercent() / 100.0;
-
-            switch (statType) {
-                case "atk":
-                    statBonus = attacker.getAtk() * percent;
-                    break;
-                case "def":
-                    statBonus = attacker.getDef() * percent;
-                    break;
-                case "hp":
-                    statBonus = attackerHp * percent;
-                    break;
-                case "vit":
-                    statBonus = attacker.getVit() * percent;
-                    break;
-            }
-
-            int totalDamage = (int) (baseDamage + statBonus);
-            totalDamage = Math.max(1, totalDamage - (defender.getDef() / 3)); // Defense reduction
-
-            defenderHp -= totalDamage;
-
-            // Set skill cooldown
-            cooldowns.put(selectedSkill.getNum(), selectedSkill.getCooldown());
-
-            // Record battle action
-            BattleLog.BattleAction action = new BattleLog.BattleAction();
-            action.setMonsterId(isMonster1 ? attacker.getId() : attacker.getId());
-            action.setSkillNum(selectedSkill.getNum());
-            action.setDamage(totalDamage);
-            action.setTargetId(isMonster1 ? defender.getId() : defender.getId());
-            action.setRemainingHp(Math.max(0, defenderHp));
-
-            battleLog.getActions().add(action);
-        }
+    private boolean isCompactStorage() {
+        return "compact".equalsIgnoreCase(storageMode);
+    }
 
-        return Math.max(0, defenderHp);
+    private List<BattleLog.BattleAction> replay(BattleLog battleLog) {
+        PlayerMonster monster1 = battleLog.getMonster1Stats()
+                .toMonster(battleLog.getMonster1Id(), battleLog.getMonster1Element());
+        PlayerMonster monster2 = battleLog.getMonster2Stats()
+                .toMonster(battleLog.getMonster2Id(), battleLog.getMonster2Element());
+        BattleOutcome outcome = matchupCache.fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+        return outcome.getTrace().toActions(battleLog.getMonster1Id(), battleLog.getMonster2Id());
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.gatcha.api.battle.service.impl;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque cursor holding the (date, id) position of the last entry on a history page
+ */
+final class HistoryCursor {
+
+    private final Date date;
+    private final ObjectId id;
+
+    private HistoryCursor(Date date, ObjectId id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    static String encode(Date date, String id) {
+        String position = date.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HistoryCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":", 2);
+            if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new HistoryCursor(new Date(Long.parseLong(parts[0])), new ObjectId(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    Date getDate() {
+        return date;
+    }
+
+    ObjectId getId() {
+        return id;
+    }
+}
@@ -1,20 +1,28 @@
 package com.gatcha.api.battle.service.impl;
 
-import com.gatcha.api.battle.dto.RoyalRumbleResult;
+import com.gatcha.api.battle.dto.RoyalRumbleHistoryPage;
+import com.gatcha.api.battle.engine.ActionTrace;
+import com.gatcha.api.battle.engine.CombatSnapshot;
+import com.gatcha.api.battle.engine.RumbleEngine;
+import com.gatcha.api.battle.engine.RumbleOutcome;
 import com.gatcha.api.battle.model.BattleLog;
-import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.battle.model.RoyalRumble;
+import com.gatcha.api.battle.repository.RoyalRumbleRepository;
 import com.gatcha.api.battle.service.RoyalRumbleService;
 import com.gatcha.api.monster.model.PlayerMonster;
-import com.gatcha.api.monster.model.Skill;
 import com.gatcha.api.monster.service.MonsterService;
 import com.gatcha.api.player.service.PlayerService;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
+import com.gatcha.api.utils.LruCache;
+import com.gatcha.api.utils.NameGenerator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Royal Rumble Service Implementation
@@ -22,24 +30,28 @@ import java.util.stream.Collectors;
 @Service
 public class RoyalRumbleServiceImpl implements RoyalRumbleService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "rumbleDate", "id");
+
     private final MonsterService monsterService;
-    private final BattleLogRepository battleLogRepository;
-    private final MongoTemplate mongoTemplate;
+    private final RoyalRumbleRepository royalRumbleRepository;
     private final PlayerService playerService;
+    private final RumbleEngine rumbleEngine;
+    // Experience gained by recent royal rumbles keyed by owner and rumble ID, the stored rumble is the source of truth
+    private final LruCache<String, Integer> rumbleExperienceGained;
 
-    // Store the experience gained from the most recent royal rumble
-    private final Map<String, Integer> rumbleExperienceGained = new HashMap<>();
-
-    public RoyalRumbleServiceImpl(MonsterService monsterService, BattleLogRepository battleLogRepository,
-            MongoTemplate mongoTemplate, PlayerService playerService) {
+    public RoyalRumbleServiceImpl(MonsterService monsterService, RoyalRumbleRepository royalRumbleRepository,
+            PlayerService playerService, RumbleEngine rumbleEngine,
+            @Value("${royal-rumble.experience-cache.max-size:1000}") int experienceCacheSize) {
         this.monsterService = monsterService;
-        this.battleLogRepository = battleLogRepository;
-        this.mongoTemplate = mongoTemplate;
+        this.royalRumbleRepository = royalRumbleRepository;
         this.playerService = playerService;
+        this.rumbleEngine = rumbleEngine;
+        this.rumbleExperienceGained = new LruCache<>(experienceCacheSize);
     }
 
     @Override
-    public RoyalRumbleResult startRoyalRumble(String username) {
+    public RoyalRumble startRoyalRumble(String username) {
         // Get all user's monsters
         List<PlayerMonster> monsters = monsterService.getMonstersByUsername(username);
 
@@ -56,17 +68,12 @@ public class RoyalRumbleServiceImpl implements RoyalRumbleService {
             selectedMonsters = selectedMonsters.subList(0, 3);
         }
 
-        // Get the list of selected monster IDs
-        List<String> monsterIds = selectedMonsters.stream()
-                .map(PlayerMonster::getId)
-                .collect(Collectors.toList());
-
-        // Call the method with the monster ID list
-        return startRoyalRumble(username, monsterIds);
+        // The roster is already loaded, no need to fetch the participants again
+        return runRoyalRumble(username, selectedMonsters);
     }
 
     @Override
-    public RoyalRumbleResult startRoyalRumble(String username, List<String> monsterIds) {
+    public RoyalRumble startRoyalRumble(String username, List<String> monsterIds) {
         System.out.println("Starting royal rumble for user: " + username + " with monster IDs: " + monsterIds);
 
         // Validate monster count
@@ -74,315 +81,191 @@ public class RoyalRumbleServiceImpl implements RoyalRumbleService {
             throw new IllegalStateException("At least 3 monsters are required to start a Royal Rumble");
         }
 
-        // Verify all monsters belong to the user
-        List<String> userMonsterIds = monsterService.getMonstersByUsername(username)
-                .stream()
-                .map(PlayerMonster::getId)
-                .collect(Collectors.toList());
-
-        for (String monsterId : monsterIds) {
-            if (!userMonsterIds.contains(monsterId)) {
-                throw new IllegalArgumentException("Monster " + monsterId + " does not belong to user " + username);
-            }
+        // Load the participants with one query, which also verifies they all belong to the user
+        List<PlayerMonster> selectedMonsters = monsterService.getMonstersByIds(monsterIds, username);
+        if (selectedMonsters.size() < 3) {
+            // Duplicate IDs only count once
+            throw new IllegalStateException("At least 3 monsters are required to start a Royal Rumble");
         }
+        return runRoyalRumble(username, selectedMonsters);
+    }
 
-        // Get details of selected monsters
-        List<PlayerMonster> selectedMonsters = new ArrayList<>();
-        for (String monsterId : monsterIds) {
-            try {
-                PlayerMonster monster = monsterService.getMonsterById(monsterId, username);
-                selectedMonsters.add(monster);
-            } catch (Exception e) {
-                System.out.println("Error getting monster " + monsterId + ": " + e.getMessage());
-                throw new IllegalArgumentException("Error getting monster " + monsterId, e);
-            }
+    private RoyalRumble runRoyalRumble(String username, List<PlayerMonster> selectedMonsters) {
+        int count = selectedMonsters.size();
+        String[] monsterIds = new String[count];
+        String[] elements = new String[count];
+        String[] names = new String[count];
+        CombatSnapshot[] participants = new CombatSnapshot[count];
+        for (int i = 0; i < count; i++) {
+            monsterIds[i] = selectedMonsters.get(i).getId();
+            elements[i] = selectedMonsters.get(i).getElement();
+            names[i] = selectedMonsters.get(i).displayName();
+            participants[i] = CombatSnapshot.of(selectedMonsters.get(i));
         }
 
+        // Fight on the engine, every survivor attacks a random survivor each round
+        ActionTrace trace = new ActionTrace(count * 4);
+        RumbleOutcome outcome = rumbleEngine.fight(participants, ThreadLocalRandom.current(), trace);
+
         // Create royal rumble result
-        RoyalRumbleResult result = new RoyalRumbleResult();
-        result.setId(UUID.randomUUID().toString());
+        RoyalRumble result = new RoyalRumble();
+        // The ID is assigned up front so the experience can be cached before saving
+        result.setId(new ObjectId().toHexString());
+        result.setUsername(username);
         result.setRumbleDate(new Date());
-        result.setParticipantIds(monsterIds);
-        result.setRounds(new ArrayList<>());
-
-        // Copy monster attributes for battle
-        Map<String, Integer> monsterHp = new HashMap<>();
-        Map<String, Map<Integer, Integer>> monsterCooldowns = new HashMap<>();
-
-        // Initialize monster HP and skill cooldowns
-        for (PlayerMonster monster : selectedMonsters) {
-            monsterHp.put(monster.getId(), monster.getHp());
-            monsterCooldowns.put(monster.getId(), initCooldowns(monster));
-        }
-
-        // List of alive monster IDs
-        List<String> aliveMonsterIds = new ArrayList<>(monsterHp.keySet());
-
-        // Round counter
-        int roundNumber = 0;
-
-        // Royal rumble loop, until only one monster remains
-        while (aliveMonsterIds.size() > 1) {
-            roundNumber++;
-
-            // Create current round
-            RoyalRumbleResult.RumbleRound round = new RoyalRumbleResult.RumbleRound();
-            round.setRoundNumber(roundNumber);
-            round.setActions(new ArrayList<>());
-
-            // Add round start log
-            result.getBattleLog()
-                    .add("Round " + roundNumber + " begins, remaining monsters: " + aliveMonsterIds.size());
-
-            // Randomly order monsters to determine attack sequence
-            Collections.shuffle(aliveMonsterIds);
-
-            // Each monster performs one attack
-            for (int i = 0; i < aliveMonsterIds.size(); i++) {
-                String attackerId = aliveMonsterIds.get(i);
-
-                // If attacker is already dead, skip
-                if (!aliveMonsterIds.contains(attackerId)) {
-                    continue;
-                }
-
-                // Randomly select a target (cannot be self)
-                List<String> possibleTargets = new ArrayList<>(aliveMonsterIds);
-                possibleTargets.remove(attackerId);
-
-                // If there are no targets to attack, skip
-                if (possibleTargets.isEmpty()) {
-                    continue;
-                }
-
-                String targetId = possibleTargets.get(new Random().nextInt(possibleTargets.size()));
-
-                // Get attacker and target monsters
-                PlayerMonster attacker = getMonsterById(selectedMonsters, attackerId);
-                PlayerMonster defender = getMonsterById(selectedMonsters, targetId);
-
-                // Add log for attacker selecting target
-                result.getBattleLog()
-                        .add(generateMonsterName(attacker) + " chooses to attack " + generateMonsterName(defender));
-
-                // Perform attack
-                int defenderHp = performAttack(attacker, defender, monsterHp.get(attackerId),
-                        monsterHp.get(targetId), monsterCooldowns.get(attackerId), round.getActions());
-
-                // Update target HP
-                monsterHp.put(targetId, defenderHp);
-
-                // Get the last battle action
-                if (!round.getActions().isEmpty()) {
-                    BattleLog.BattleAction lastAction = round.getActions().get(round.getActions().size() - 1);
-
-                    // Add log for attack result
-                    String skillName = lastAction.getSkillNum() == 0 ? "Basic Attack"
-                            : "Skill " + lastAction.getSkillNum();
-                    result.getBattleLog().add(generateMonsterName(attacker) + " uses " + skillName +
-                            " on " + generateMonsterName(defender) + " dealing " +
-                            lastAction.getDamage() + " damage, " +
-                            generateMonsterName(defender) + " remaining HP: " +
-                            lastAction.getRemainingHp());
-                }
-
-                // If target dies, remove from alive list
-                if (defenderHp <= 0) {
-                    aliveMonsterIds.remove(targetId);
-                    // Add log for monster defeat
-                    result.getBattleLog().add(generateMonsterName(defender) + " has been defeated!");
-                }
-            }
-
-            // Update all monsters' skill cooldowns
-            for (String monsterId : aliveMonsterIds) {
-                updateCooldowns(monsterCooldowns.get(monsterId));
-            }
-
-            // Set remaining monsters after the round
-            round.setRemainingMonsterIds(new ArrayList<>(aliveMonsterIds));
-
-            // Add round to result
-            result.getRounds().add(round);
-
-            // Add round end log
-            result.getBattleLog().add("Round " + roundNumber + " ends, remaining monsters: " + aliveMonsterIds.size());
-        }
+        result.setParticipantIds(Arrays.asList(monsterIds));
+        result.setParticipantElements(Arrays.asList(elements));
+        result.setParticipantNames(Arrays.asList(names));
+        result.setRounds(toRounds(outcome, monsterIds));
 
         // Set winner
-        String winnerId = aliveMonsterIds.get(0);
-        PlayerMonster winner = getMonsterById(selectedMonsters, winnerId);
+        PlayerMonster winner = selectedMonsters.get(outcome.getWinner());
+        String winnerId = winner.getId();
         result.setWinner(winner);
 
-        // Add winner log
-        result.getBattleLog().add(generateMonsterName(winner) + " is the final victor!");
-
         // Calculate experience gained: base experience (50) + number of participating
         // monsters * 10
         int expGained = 50 + (selectedMonsters.size() * 10);
 
+        // Remove all losing monsters from player's collection in one write. If none of
+        // them is left, a concurrent battle already used them up and nothing is written
+        List<String> loserIds = new ArrayList<>(result.getParticipantIds());
+        loserIds.remove(winnerId); // Remove winner from the list
+        if (!playerService.removeMonsters(username, loserIds)) {
+            throw new IllegalStateException("Monsters " + loserIds + " are no longer in the collection of " + username);
+        }
+
         // Add experience to the winning monster
         monsterService.addExperience(winnerId, username, expGained);
 
         // Store experience gained from this royal rumble
-        rumbleExperienceGained.put(result.getId(), expGained);
+        rumbleExperienceGained.put(experienceKey(username, result.getId()), expGained);
         result.setExperienceGained(expGained);
 
-        // Remove all losing monsters from player's collection
-        List<String> loserIds = new ArrayList<>(result.getParticipantIds());
-        loserIds.remove(winnerId); // Remove winner from the list
-        for (String loserId : loserIds) {
-            playerService.removeMonster(username, loserId);
-        }
-
-        // Save royal rumble result to MongoDB (as a custom document)
-        mongoTemplate.save(result, "royalRumbles");
+        // Save royal rumble result to MongoDB
+        royalRumbleRepository.insert(result);
 
         return result;
     }
 
     @Override
-    public int getExperienceGained(String rumbleId) {
-        // First try to get from memory
-        if (rumbleExperienceGained.containsKey(rumbleId)) {
-            return rumbleExperienceGained.get(rumbleId);
+    public int getExperienceGained(String username, String rumbleId) {
+        String key = experienceKey(username, rumbleId);
+        Integer cached = rumbleExperienceGained.get(key);
+        if (cached != null) {
+            return cached;
         }
 
-        // If not in memory, query from MongoDB
-        Query query = new Query(Criteria.where("id").is(rumbleId));
-        RoyalRumbleResult result = mongoTemplate.findOne(query, RoyalRumbleResult.class, "royalRumbles");
+        // Not cached on this node (evicted, restarted or fought elsewhere), read the rumble
+        RoyalRumble rumble = royalRumbleRepository.findByIdAndUsername(rumbleId, username)
+                .orElseThrow(() -> new IllegalArgumentException("Royal rumble not found: " + rumbleId));
+        int experienceGained = rumble.getExperienceGained();
+        rumbleExperienceGained.put(key, experienceGained);
+        return experienceGained;
+    }
 
-        if (result != null) {
-            // Cache result in memory
-            rumbleExperienceGained.put(rumbleId, result.getExperienceGained());
-            return result.getExperienceGained();
+    private static String experienceKey(String username, String rumbleId) {
+        return username + ":" + rumbleId;
+    }
+
+    @Override
+    public RoyalRumbleHistoryPage getRumbleHistory(String username, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        // Fetch one extra rumble to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1, HISTORY_ORDER);
+        List<RoyalRumble> rumbles;
+        if (cursor == null || cursor.isEmpty()) {
+            rumbles = royalRumbleRepository.findSummariesByUsername(username, pageable);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rumbles = royalRumbleRepository.findSummariesByUsernameBefore(username, position.getDate(),
+                    position.getId(), pageable);
         }
 
-        return 0;
+        String nextCursor = null;
+        if (rumbles.size() > pageSize) {
+            rumbles = new ArrayList<>(rumbles.subList(0, pageSize));
+            RoyalRumble last = rumbles.get(pageSize - 1);
+            nextCursor = HistoryCursor.encode(last.getRumbleDate(), last.getId());
+        }
+        return new RoyalRumbleHistoryPage(rumbles, nextCursor);
     }
 
     @Override
-    public List<RoyalRumbleResult> getAllRumbles() {
-        // Get all royal rumble records from MongoDB
-        return mongoTemplate.findAll(RoyalRumbleResult.class, "royalRumbles");
+    public List<String> getBattleLog(String username, String rumbleId) {
+        RoyalRumble result = royalRumbleRepository.findByIdAndUsername(rumbleId, username)
+                .orElseThrow(() -> new IllegalArgumentException("Royal rumble not found: " + rumbleId));
+        return renderBattleLog(result);
     }
 
-    /**
-     * Get monster by ID from monster list
-     */
-    private PlayerMonster getMonsterById(List<PlayerMonster> monsters, String id) {
-        return monsters.stream()
-                .filter(m -> m.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Monster not found: " + id));
-    }
+    @Override
+    public List<String> renderBattleLog(RoyalRumble result) {
+        // Rumbles stored before the log was rendered on demand keep their stored log
+        if (result.getBattleLog() != null) {
+            return result.getBattleLog();
+        }
+        List<String> participantNames = result.getParticipantNames();
+        if (result.getRounds() == null || (participantNames == null && result.getParticipantElements() == null)) {
+            return new ArrayList<>();
+        }
 
-    /**
-     * Initialize skill cooldowns
-     */
-    private Map<Integer, Integer> initCooldowns(PlayerMonster monster) {
-        Map<Integer, Integer> cooldowns = new HashMap<>();
-        for (Skill skill : monster.getSkills()) {
-            cooldowns.put(skill.getNum(), 0);
+        // Names stored with the rumble, older rumbles regenerate them from the IDs
+        Map<String, String> names = new HashMap<>();
+        for (int i = 0; i < result.getParticipantIds().size(); i++) {
+            String monsterId = result.getParticipantIds().get(i);
+            names.put(monsterId, participantNames != null ? participantNames.get(i)
+                    : NameGenerator.cachedName(monsterId, result.getParticipantElements().get(i)));
         }
-        return cooldowns;
-    }
 
-    /**
-     * Update skill cooldowns
-     */
-    private void updateCooldowns(Map<Integer, Integer> cooldowns) {
-        for (Map.Entry<Integer, Integer> entry : cooldowns.entrySet()) {
-            if (entry.getValue() > 0) {
-                cooldowns.put(entry.getKey(), entry.getValue() - 1);
+        List<String> battleLog = new ArrayList<>();
+        int remaining = result.getParticipantIds().size();
+        for (RoyalRumble.RumbleRound round : result.getRounds()) {
+            battleLog.add("Round " + round.getRoundNumber() + " begins, remaining monsters: " + remaining);
+            for (BattleLog.BattleAction action : round.getActions()) {
+                String attacker = names.get(action.getMonsterId());
+                String defender = names.get(action.getTargetId());
+                String skillName = action.getSkillNum() == 0 ? "Basic Attack" : "Skill " + action.getSkillNum();
+                battleLog.add(attacker + " chooses to attack " + defender);
+                battleLog.add(attacker + " uses " + skillName + " on " + defender + " dealing " + action.getDamage()
+                        + " damage, " + defender + " remaining HP: " + action.getRemainingHp());
+                if (action.getRemainingHp() == 0) {
+                    battleLog.add(defender + " has been defeated!");
+                }
             }
+            remaining = round.getRemainingMonsterIds().size();
+            battleLog.add("Round " + round.getRoundNumber() + " ends, remaining monsters: " + remaining);
         }
+        battleLog.add(names.get(result.getWinner().getId()) + " is the final victor!");
+        return battleLog;
     }
 
     /**
-     * Perform attack
+     * Split the trace into rounds, with the survivors after each round
      */
-    private int performAttack(PlayerMonster attacker, PlayerMonster defender, int attackerHp, int defenderHp,
-            Map<Integer, Integer> cooldowns, List<BattleLog.BattleAction> actions) {
-        // Sort skills by skill number in descending order
-        List<Skill> skills = new ArrayList<>(attacker.getSkills());
-        skills.sort(Comparator.comparing(Skill::getNum).reversed());
-
-        // Select available skill
-        Skill selectedSkill = null;
-        for (Skill skill : skills) {
-            if (cooldowns.get(skill.getNum()) == 0) {
-                selectedSkill = skill;
-                break;
+    private List<RoyalRumble.RumbleRound> toRounds(RumbleOutcome outcome, String[] monsterIds) {
+        ActionTrace trace = outcome.getTrace();
+        boolean[] defeated = new boolean[monsterIds.length];
+        List<RoyalRumble.RumbleRound> rounds = new ArrayList<>(outcome.getRounds());
+        int action = 0;
+        for (int round = 0; round < outcome.getRounds(); round++) {
+            int end = outcome.getRoundEnd(round);
+            List<BattleLog.BattleAction> actions = new ArrayList<>(end - action);
+            for (; action < end; action++) {
+                actions.add(trace.toAction(action, monsterIds));
+                if (trace.getRemainingHp(action) == 0) {
+                    defeated[trace.getTarget(action)] = true;
+                }
             }
-        }
 
-        if (selectedSkill == null) {
-            // All skills are on cooldown, use basic attack
-            int damage = attacker.getAtk() - (defender.getDef() / 2);
-            damage = Math.max(1, damage); // At least 1 damage
-
-            defenderHp -= damage;
-
-            // Record battle action
-            BattleLog.BattleAction action = new BattleLog.BattleAction();
-            action.setMonsterId(attacker.getId());
-            action.setSkillNum(0); // Basic attack
-            action.setDamage(damage);
-            action.setTargetId(defender.getId());
-            action.setRemainingHp(Math.max(0, defenderHp));
-
-            actions.add(action);
-        } else {
-            // Use selected skill
-            int baseDamage = selectedSkill.getDmg();
-
-            // Calculate stat bonus
-            double statBonus = 0;
-            String statType = selectedSkill.getRatio().getStat();
-            double percent = selectedSkill.getRatio().getPercent() / 100.0;
-
-            switch (statType) {
-                case "atk":
-                    statBonus = attacker.getAtk() * percent;
-                    break;
-                case "def":
-                    statBonus = attacker.getDef() * percent;
-                    break;
-                case "hp":
-                    statBonus = attackerHp * percent;
-                    break;
-                case "vit":
-                    statBonus = attacker.getVit() * percent;
-                    break;
+            List<String> remainingMonsterIds = new ArrayList<>();
+            for (int i = 0; i < monsterIds.length; i++) {
+                if (!defeated[i]) {
+                    remainingMonsterIds.add(monsterIds[i]);
+                }
             }
-
-            int totalDamage = (int) (baseDamage + statBonus);
-            totalDamage = Math.max(1, totalDamage - (defender.getDef() / 3)); // Defense reduction
-
-            defenderHp -= totalDamage;
-
-            // Set skill cooldown
-            cooldowns.put(selectedSkill.getNum(), selectedSkill.getCooldown());
-
-            // Record battle action
-            BattleLog.BattleAction action = new BattleLog.BattleAction();
-            action.setMonsterId(attacker.getId());
-            action.setSkillNum(selectedSkill.getNum());
-            action.setDamage(totalDamage);
-            action.setTargetId(defender.getId());
-            action.setRemainingHp(Math.max(0, defenderHp));
-
-            actions.add(action);
+            rounds.add(new RoyalRumble.RumbleRound(round + 1, actions, remainingMonsterIds));
         }
-
-        return Math.max(0, defenderHp);
-    }
-
-    /**
-     * Generate a friendly name for the monster
-     */
-    private String generateMonsterName(PlayerMonster monster) {
-        return com.gatcha.api.utils.NameGenerator.generateName(monster.getId(), monster.getElement());
+        return rounds;
     }
 }
\ No newline at end of file
@@ -0,0 +1,399 @@
+package com.gatcha.api.battle.service.impl;
+
+import com.gatcha.api.battle.dto.SimulationRequest;
+import com.gatcha.api.battle.dto.SimulationResult;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.BattleOutcome;
+import com.gatcha.api.battle.engine.CombatSnapshot;
+import com.gatcha.api.battle.engine.RumbleEngine;
+import com.gatcha.api.battle.engine.RumbleOutcome;
+import com.gatcha.api.battle.service.SimulationService;
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import com.gatcha.api.monster.service.MonsterService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Simulation Service Implementation
+ * The work is split into units (one monster's battles against the following
+ * monsters in one iteration, or one rumble) fought by a fork-join task on the
+ * dedicated simulation pool. Each unit draws from its own random generator
+ * derived from the seed, so results do not depend on scheduling.
+ * Monsters with sampled skill levels are built a fixed number of times per
+ * run, each iteration only picks one of these samples.
+ * The work per run (fights in battle mode, estimated attacks in rumble mode)
+ * and the number of concurrent runs are capped so that a single request
+ * cannot take over the pool.
+ */
+@Service
+public class SimulationServiceImpl implements SimulationService {
+
+    private static final String BATTLE = "battle";
+    private static final String RUMBLE = "rumble";
+    private static final String SIMULATION_USER = "simulation";
+    // Units per worker, to balance uneven units
+    private static final int UNITS_PER_WORKER = 8;
+    private static final int MAX_LEVEL = 1000;
+    // Skill allocations built per sampled monster and run
+    private static final int SAMPLES_PER_MONSTER = 64;
+
+    private final MonsterService monsterService;
+    private final MonsterTemplateCatalog monsterTemplateCatalog;
+    private final BattleEngine battleEngine;
+    private final RumbleEngine rumbleEngine;
+    private final ForkJoinPool simulationPool;
+    private final int maxIterations;
+    private final int maxMonsters;
+    private final long maxFights;
+    private final long maxRumbleAttacks;
+    private final int maxConcurrentRuns;
+    private final Semaphore runs;
+
+    public SimulationServiceImpl(MonsterService monsterService, MonsterTemplateCatalog monsterTemplateCatalog,
+            BattleEngine battleEngine, RumbleEngine rumbleEngine,
+            @Qualifier("simulationPool") ForkJoinPool simulationPool,
+            @Value("${simulation.max-iterations:100000}") int maxIterations,
+            @Value("${simulation.max-monsters:256}") int maxMonsters,
+            @Value("${simulation.max-fights:10000000}") long maxFights,
+            @Value("${simulation.max-rumble-attacks:100000000}") long maxRumbleAttacks,
+            @Value("${simulation.max-concurrent-runs:2}") int maxConcurrentRuns) {
+        this.monsterService = monsterService;
+        this.monsterTemplateCatalog = monsterTemplateCatalog;
+        this.battleEngine = battleEngine;
+        this.rumbleEngine = rumbleEngine;
+        this.simulationPool = simulationPool;
+        this.maxIterations = maxIterations;
+        this.maxMonsters = maxMonsters;
+        this.maxFights = maxFights;
+        this.maxRumbleAttacks = maxRumbleAttacks;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.runs = new Semaphore(maxConcurrentRuns);
+    }
+
+    @Override
+    public CompletableFuture<SimulationResult> simulate(SimulationRequest request) {
+        Simulation simulation = prepare(request);
+        if (!runs.tryAcquire()) {
+            throw new RejectedExecutionException("At most " + maxConcurrentRuns + " simulations can run at once");
+        }
+        try {
+            return CompletableFuture.supplyAsync(simulation::run, simulationPool)
+                    .whenComplete((result, error) -> runs.release());
+        } catch (RuntimeException e) {
+            runs.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Validate the request, compile the participants with fixed skill levels
+     * and the first sample of the others
+     */
+    private Simulation prepare(SimulationRequest request) {
+        String mode = request.getMode() == null ? BATTLE : request.getMode();
+        if (!BATTLE.equals(mode) && !RUMBLE.equals(mode)) {
+            throw new IllegalArgumentException("Unknown simulation mode: " + mode);
+        }
+        if (request.getIterations() < 1 || request.getIterations() > maxIterations) {
+            throw new IllegalArgumentException("Iterations must be between 1 and " + maxIterations);
+        }
+
+        List<SimulationRequest.SimulatedMonster> monsters = request.getMonsters();
+        if (monsters == null || monsters.isEmpty()) {
+            monsters = monsterTemplateCatalog.getTemplates().stream()
+                    .map(template -> new SimulationRequest.SimulatedMonster(template.getId(), request.getLevel(), null))
+                    .collect(Collectors.toList());
+        }
+        if (monsters.size() < 2 || monsters.size() > maxMonsters) {
+            throw new IllegalArgumentException("Between 2 and " + maxMonsters + " monsters can be simulated");
+        }
+
+        boolean sampled = false;
+        for (int i = 0; i < monsters.size(); i++) {
+            SimulationRequest.SimulatedMonster monster = monsters.get(i);
+            if (monster.getTemplateId() == null || monsterTemplateCatalog.findById(monster.getTemplateId()).isEmpty()) {
+                throw new IllegalArgumentException("Monster template not found: " + monster.getTemplateId());
+            }
+            if (monster.getLevel() < 1 || monster.getLevel() > MAX_LEVEL) {
+                throw new IllegalArgumentException("Monster level must be between 1 and " + MAX_LEVEL);
+            }
+            sampled |= monster.getSkillLevels() == null;
+        }
+
+        // One-on-one battles are deterministic, repeating them only makes sense with sampled skill levels
+        int iterations = BATTLE.equals(mode) && !sampled ? 1 : request.getIterations();
+
+        // Battle mode fights every pair once per iteration
+        if (BATTLE.equals(mode)) {
+            long fights = (long) iterations * monsters.size() * (monsters.size() - 1) / 2;
+            if (fights > maxFights) {
+                throw new IllegalArgumentException("A simulation can run at most " + maxFights
+                        + " fights, this one needs " + fights);
+            }
+        }
+
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
+        int samples = Math.min(iterations, SAMPLES_PER_MONSTER);
+        CombatSnapshot[][] snapshots = new CombatSnapshot[monsters.size()][];
+        CombatSnapshot[] firstSnapshots = new CombatSnapshot[monsters.size()];
+        for (int i = 0; i < monsters.size(); i++) {
+            SimulationRequest.SimulatedMonster monster = monsters.get(i);
+            // Also rejects skill levels that cannot be reached at the monster's level
+            snapshots[i] = new CombatSnapshot[monster.getSkillLevels() != null ? 1 : samples];
+            snapshots[i][0] = CombatSnapshot.of(buildMonster(monster, sampleRandom(seed, 0, i)));
+            firstSnapshots[i] = snapshots[i][0];
+        }
+
+        // The length of a rumble grows with its participants and their resilience, cap the attacks instead
+        if (RUMBLE.equals(mode)) {
+            long attacks = iterations * rumbleEngine.estimateAttacks(firstSnapshots);
+            if (attacks > maxRumbleAttacks) {
+                throw new IllegalArgumentException("A rumble simulation can run at most " + maxRumbleAttacks
+                        + " attacks, this one needs about " + attacks);
+            }
+        }
+
+        return new Simulation(mode, monsters, snapshots, iterations, seed);
+    }
+
+    /**
+     * Generator for one sample of a monster, apart from the generators of the iterations
+     */
+    private static RandomGenerator sampleRandom(long seed, int sample, int index) {
+        return new SplittableRandom(~seed + ((long) sample << 20) + index);
+    }
+
+    /**
+     * Build a template monster at the requested level and skill levels
+     *
+     * @param random Source for the skill point allocation when no skill levels are requested
+     */
+    private PlayerMonster buildMonster(SimulationRequest.SimulatedMonster spec, RandomGenerator random) {
+        PlayerMonster monster = monsterService.buildMonster(spec.getTemplateId(), SIMULATION_USER);
+        for (int level = 1; level < spec.getLevel(); level++) {
+            monster.addExperience(100);
+        }
+
+        if (spec.getSkillLevels() != null) {
+            List<Skill> skills = monster.getSkills();
+            if (spec.getSkillLevels().size() > skills.size()) {
+                throw new IllegalArgumentException("Template " + spec.getTemplateId() + " has only "
+                        + skills.size() + " skills");
+            }
+            for (int i = 0; i < spec.getSkillLevels().size(); i++) {
+                int skillNum = skills.get(i).getNum();
+                for (int level = 0; level < spec.getSkillLevels().get(i); level++) {
+                    try {
+                        monster.upgradeSkill(skillNum);
+                    } catch (IllegalStateException e) {
+                        throw new IllegalArgumentException("Not enough skill points for the skill levels of template "
+                                + spec.getTemplateId() + " at level " + spec.getLevel());
+                    }
+                }
+            }
+        } else {
+            // Spend every skill point on a random skill that can still be upgraded
+            List<Skill> upgradable = new ArrayList<>(monster.getSkills());
+            while (monster.getSkillPoints() > 0) {
+                upgradable.removeIf(skill -> skill.getLevel() >= skill.getLvlMax());
+                if (upgradable.isEmpty()) {
+                    break;
+                }
+                monster.upgradeSkill(upgradable.get(random.nextInt(upgradable.size())).getNum());
+            }
+        }
+        return monster;
+    }
+
+    /**
+     * One simulation run, immutable once its samples are built and shared by its tasks
+     */
+    private final class Simulation {
+
+        private final String mode;
+        private final List<SimulationRequest.SimulatedMonster> monsters;
+        // One snapshot per monster with fixed skill levels, the samples of the others
+        private final CombatSnapshot[][] snapshots;
+        private final int iterations;
+        private final long seed;
+        private final int units;
+        private final int grain;
+
+        Simulation(String mode, List<SimulationRequest.SimulatedMonster> monsters, CombatSnapshot[][] snapshots,
+                int iterations, long seed) {
+            this.mode = mode;
+            this.monsters = monsters;
+            this.snapshots = snapshots;
+            this.iterations = iterations;
+            this.seed = seed;
+            this.units = BATTLE.equals(mode) ? iterations * monsters.size() : iterations;
+            this.grain = Math.max(1, units / (simulationPool.getParallelism() * UNITS_PER_WORKER));
+        }
+
+        SimulationResult run() {
+            long start = System.currentTimeMillis();
+            // The first sample of each monster was built with the request, build the others on the pool
+            IntStream.range(0, monsters.size()).parallel().forEach(i -> {
+                for (int sample = 1; sample < snapshots[i].length; sample++) {
+                    snapshots[i][sample] = CombatSnapshot.of(
+                            buildMonster(monsters.get(i), sampleRandom(seed, sample, i)));
+                }
+            });
+            Tally tally = new SimulationTask(this, 0, units).invoke();
+            int count = monsters.size();
+
+            SimulationResult result = new SimulationResult();
+            result.setMode(mode);
+            result.setMonsters(monsters);
+            result.setIterations(iterations);
+            result.setFights(tally.fights);
+
+            // Battle mode: every monster fights each other monster once per iteration
+            long fightsPerMonster = BATTLE.equals(mode) ? (long) iterations * (count - 1) : iterations;
+            List<Double> winRates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                winRates.add((double) tally.wins[i] / fightsPerMonster);
+            }
+            result.setWinRates(winRates);
+
+            if (BATTLE.equals(mode)) {
+                List<List<Double>> matrix = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    List<Double> row = new ArrayList<>(count);
+                    for (int j = 0; j < count; j++) {
+                        row.add(i == j ? null : (double) tally.pairWins[i][j] / iterations);
+                    }
+                    matrix.add(row);
+                }
+                result.setMatchupWinRates(matrix);
+                result.setAverageTurns((double) tally.length / tally.fights);
+            } else {
+                result.setAverageRounds((double) tally.length / tally.fights);
+            }
+
+            result.setElapsedMillis(System.currentTimeMillis() - start);
+            return result;
+        }
+
+        void run(int unit, Tally tally) {
+            if (BATTLE.equals(mode)) {
+                int iteration = unit / monsters.size();
+                int i = unit % monsters.size();
+                CombatSnapshot first = snapshot(iteration, i);
+                for (int j = i + 1; j < monsters.size(); j++) {
+                    BattleOutcome outcome = battleEngine.fight(first, snapshot(iteration, j));
+                    int winner = outcome.getWinner() == 0 ? i : j;
+                    tally.wins[winner]++;
+                    tally.pairWins[winner][winner == i ? j : i]++;
+                    tally.length += outcome.getTurns();
+                    tally.fights++;
+                }
+            } else {
+                CombatSnapshot[] participants = new CombatSnapshot[monsters.size()];
+                for (int i = 0; i < participants.length; i++) {
+                    participants[i] = snapshot(unit, i);
+                }
+                RumbleOutcome outcome = rumbleEngine.fight(participants, random(unit, participants.length), null);
+                tally.wins[outcome.getWinner()]++;
+                tally.length += outcome.getRounds();
+                tally.fights++;
+            }
+        }
+
+        /**
+         * Snapshot of one monster in one iteration, the same for every unit of the iteration
+         */
+        private CombatSnapshot snapshot(int iteration, int index) {
+            CombatSnapshot[] samples = snapshots[index];
+            return samples.length == 1 ? samples[0] : samples[random(iteration, index).nextInt(samples.length)];
+        }
+
+        /**
+         * Generator for one monster (or the rumble itself) in one iteration
+         */
+        private RandomGenerator random(int iteration, int index) {
+            return new SplittableRandom(seed + ((long) iteration << 20) + index);
+        }
+    }
+
+    /**
+     * Splits a range of units until it is small enough to be run sequentially
+     */
+    private static final class SimulationTask extends RecursiveTask<Tally> {
+
+        private final Simulation simulation;
+        private final int from;
+        private final int to;
+
+        SimulationTask(Simulation simulation, int from, int to) {
+            this.simulation = simulation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= simulation.grain) {
+                Tally tally = new Tally(simulation.monsters.size(), BATTLE.equals(simulation.mode));
+                for (int unit = from; unit < to; unit++) {
+                    simulation.run(unit, tally);
+                }
+                return tally;
+            }
+
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(simulation, from, middle);
+            left.fork();
+            Tally right = new SimulationTask(simulation, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Counters of one task, merged up the task tree
+     */
+    private static final class Tally {
+
+        private final long[] wins;
+        // Battle mode only: wins of the row monster against the column monster
+        private final long[][] pairWins;
+        // Turns (battle mode) or rounds (rumble mode), summed over the fights
+        private long length;
+        private long fights;
+
+        Tally(int monsters, boolean battle) {
+            wins = new long[monsters];
+            pairWins = battle ? new long[monsters][monsters] : null;
+        }
+
+        Tally merge(Tally other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                if (pairWins != null) {
+                    for (int j = 0; j < wins.length; j++) {
+                        pairWins[i][j] += other.pairWins[i][j];
+                    }
+                }
+            }
+            length += other.length;
+            fights += other.fights;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.gatcha.api.battle.service.impl;
+
+import com.gatcha.api.battle.dto.TournamentResult;
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.battle.service.BattleService;
+import com.gatcha.api.battle.service.TournamentService;
+import com.gatcha.api.battle.settlement.BattleSettlement;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.service.MonsterService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Tournament Service Implementation
+ * The matches of a round are independent, so they are fought in parallel on
+ * the tournament pool. Nothing is written until the final is decided, then
+ * the whole bracket is settled in one batch.
+ */
+@Service
+public class TournamentServiceImpl implements TournamentService {
+
+    private final MonsterService monsterService;
+    private final BattleService battleService;
+    private final BattleSettlement battleSettlement;
+    private final ForkJoinPool tournamentPool;
+    private final int maxMonsters;
+
+    public TournamentServiceImpl(MonsterService monsterService, BattleService battleService,
+            BattleSettlement battleSettlement, @Qualifier("tournamentPool") ForkJoinPool tournamentPool,
+            @Value("${tournament.max-monsters:256}") int maxMonsters) {
+        this.monsterService = monsterService;
+        this.battleService = battleService;
+        this.battleSettlement = battleSettlement;
+        this.tournamentPool = tournamentPool;
+        this.maxMonsters = maxMonsters;
+    }
+
+    @Override
+    public TournamentResult startTournament(String username, List<String> monsterIds) {
+        int size = monsterIds.size();
+        if (size < 2 || size > maxMonsters || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException(
+                    "A tournament needs a power of two of monsters, between 2 and " + maxMonsters);
+        }
+
+        // One query for all participants, ownership is checked by it
+        List<PlayerMonster> monsters = monsterService.getMonstersByIds(monsterIds, username);
+        if (monsters.size() != size) {
+            throw new IllegalArgumentException("A monster can only enter a tournament once");
+        }
+
+        PlayerMonster[] bracket = seed(monsters);
+        List<TournamentResult.TournamentRound> rounds = new ArrayList<>();
+        List<BattleLog> battleLogs = new ArrayList<>(size - 1);
+        while (bracket.length > 1) {
+            BattleLog[] roundLogs = playRound(bracket, username);
+
+            // Winners keep their bracket order, so neighbours meet in the next round
+            PlayerMonster[] winners = new PlayerMonster[roundLogs.length];
+            for (int match = 0; match < roundLogs.length; match++) {
+                PlayerMonster monster1 = bracket[2 * match];
+                winners[match] = roundLogs[match].getWinnerId().equals(monster1.getId())
+                        ? monster1
+                        : bracket[2 * match + 1];
+            }
+            battleLogs.addAll(Arrays.asList(roundLogs));
+            rounds.add(new TournamentResult.TournamentRound(rounds.size() + 1, null));
+            bracket = winners;
+        }
+
+        // Remove all losers, grant all experience and insert all battle logs, one write each
+        List<BattleLog> savedLogs = battleSettlement.settleAll(username, battleLogs);
+
+        String championId = bracket[0].getId();
+        int experienceGained = 0;
+        int next = 0;
+        for (TournamentResult.TournamentRound round : rounds) {
+            int matches = size >> round.getRoundNumber();
+            List<TournamentResult.TournamentMatch> roundMatches = new ArrayList<>(matches);
+            for (BattleLog battleLog : savedLogs.subList(next, next + matches)) {
+                roundMatches.add(new TournamentResult.TournamentMatch(battleLog.getId(), battleLog.getMonster1Id(),
+                        battleLog.getMonster2Id(), battleLog.getWinnerId(), battleLog.getExperienceGained()));
+                if (battleLog.getWinnerId().equals(championId)) {
+                    experienceGained += battleLog.getExperienceGained();
+                }
+            }
+            round.setMatches(roundMatches);
+            next += matches;
+        }
+
+        // The champion is read back with the experience of all its wins
+        PlayerMonster champion = monsterService.getMonsterById(championId, username);
+        return new TournamentResult(champion, rounds, experienceGained);
+    }
+
+    /**
+     * Fight the matches of a round, monsters 2i and 2i+1 of the bracket meet in match i
+     */
+    private BattleLog[] playRound(PlayerMonster[] bracket, String username) {
+        int matches = bracket.length / 2;
+        BattleLog[] roundLogs = new BattleLog[matches];
+        int workers = Math.min(matches, tournamentPool.getParallelism());
+        if (workers <= 1) {
+            for (int match = 0; match < matches; match++) {
+                roundLogs[match] = battleService.fight(bracket[2 * match], bracket[2 * match + 1], username);
+            }
+            return roundLogs;
+        }
+
+        // One task per worker, each fighting every workers-th match
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            int firstMatch = worker;
+            tasks.add(() -> {
+                for (int match = firstMatch; match < matches; match += workers) {
+                    roundLogs[match] = battleService.fight(bracket[2 * match], bracket[2 * match + 1], username);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> task : tournamentPool.invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Tournament match failed", e.getCause());
+        }
+        return roundLogs;
+    }
+
+    /**
+     * Place the monsters, given from the top seed down, so that the higher
+     * seeds can only meet in later rounds (1 v 8, 4 v 5, 2 v 7, 3 v 6 for 8 monsters)
+     */
+    private static PlayerMonster[] seed(List<PlayerMonster> monsters) {
+        int[] order = {0};
+        while (order.length < monsters.size()) {
+            int[] next = new int[order.length * 2];
+            for (int i = 0; i < order.length; i++) {
+                next[2 * i] = order[i];
+                next[2 * i + 1] = next.length - 1 - order[i];
+            }
+            order = next;
+        }
+
+        PlayerMonster[] bracket = new PlayerMonster[order.length];
+        for (int slot = 0; slot < order.length; slot++) {
+            bracket[slot] = monsters.get(order[slot]);
+        }
+        return bracket;
+    }
+}
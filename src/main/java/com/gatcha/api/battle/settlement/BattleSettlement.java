@@ -0,0 +1,157 @@
+package com.gatcha.api.battle.settlement;
+
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.player.service.PlayerService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the side effects of a finished battle with one write each and no reads:
+ * the loser is pulled from the player's collection, the battle log is inserted
+ * and the winner gains experience through a server-side update.
+ * <p>
+ * With a MongoTransactionManager (battle.settlement.transactional) the writes
+ * run in one multi-document transaction. Otherwise they run in that order:
+ * the pull doubles as a guard, it only matches while the player still owns
+ * both monsters, so a monster that already left the collection in another
+ * battle cannot be settled twice and nothing else is written for it. If a
+ * later write fails, the log is deleted and the loser is put back, even into
+ * a collection that filled up in the meantime, before the failure is rethrown.
+ * <p>
+ * A batch of battles of the same player, such as a tournament, is settled the
+ * same way with one write of each kind for the whole batch.
+ */
+@Component
+public class BattleSettlement {
+
+    private final BattleLogRepository battleLogRepository;
+    private final MonsterService monsterService;
+    private final PlayerService playerService;
+    // Null without a transaction manager
+    private final TransactionTemplate transactionTemplate;
+
+    public BattleSettlement(BattleLogRepository battleLogRepository, MonsterService monsterService,
+            PlayerService playerService, ObjectProvider<MongoTransactionManager> transactionManager) {
+        this.battleLogRepository = battleLogRepository;
+        this.monsterService = monsterService;
+        this.playerService = playerService;
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionTemplate = manager != null ? new TransactionTemplate(manager) : null;
+    }
+
+    /**
+     * Settle a battle
+     *
+     * @param battleLog Battle log with its winner and experience gained, inserted as is
+     * @param loserId   Monster removed from the player's collection
+     * @return Saved battle log
+     * @throws IllegalStateException when the loser or the winner is no longer in the player's collection
+     */
+    public BattleLog settle(BattleLog battleLog, String loserId) {
+        if (transactionTemplate == null) {
+            return apply(battleLog, loserId);
+        }
+        return transactionTemplate.execute(status -> apply(battleLog, loserId));
+    }
+
+    /**
+     * Settle a batch of battles of one player
+     *
+     * @param username   Owner of every monster in the batch
+     * @param battleLogs Battle logs with their winner and experience gained, in the order they were fought
+     * @return Saved battle logs
+     * @throws IllegalStateException when a monster of the batch is no longer in the player's collection
+     */
+    public List<BattleLog> settleAll(String username, List<BattleLog> battleLogs) {
+        if (transactionTemplate == null) {
+            return applyAll(username, battleLogs);
+        }
+        return transactionTemplate.execute(status -> applyAll(username, battleLogs));
+    }
+
+    private BattleLog apply(BattleLog battleLog, String loserId) {
+        String username = battleLog.getUsername();
+        String winnerId = battleLog.getWinnerId();
+        if (!playerService.removeMonstersIfOwned(username, List.of(loserId), List.of(winnerId))) {
+            throw new IllegalStateException("Monsters " + loserId + " and " + winnerId
+                    + " are no longer both in the collection of " + username);
+        }
+
+        BattleLog savedBattleLog = null;
+        try {
+            savedBattleLog = battleLogRepository.save(battleLog);
+            if (!monsterService.grantExperience(winnerId, username, battleLog.getExperienceGained())) {
+                throw new IllegalStateException("Monster " + winnerId + " not found");
+            }
+            return savedBattleLog;
+        } catch (RuntimeException e) {
+            compensate(username, List.of(loserId), savedBattleLog == null ? List.of() : List.of(savedBattleLog), e);
+            throw e;
+        }
+    }
+
+    private List<BattleLog> applyAll(String username, List<BattleLog> battleLogs) {
+        List<String> loserIds = new ArrayList<>(battleLogs.size());
+        Set<String> winnerIds = new LinkedHashSet<>();
+        List<Pair<String, Integer>> grants = new ArrayList<>(battleLogs.size());
+        for (BattleLog battleLog : battleLogs) {
+            String winnerId = battleLog.getWinnerId();
+            boolean monster1Won = winnerId.equals(battleLog.getMonster1Id());
+            loserIds.add(monster1Won ? battleLog.getMonster2Id() : battleLog.getMonster1Id());
+            winnerIds.add(winnerId);
+            grants.add(Pair.of(winnerId, battleLog.getExperienceGained()));
+        }
+
+        if (!playerService.removeMonstersIfOwned(username, loserIds, winnerIds)) {
+            throw new IllegalStateException(
+                    "Monsters of the batch are no longer all in the collection of " + username);
+        }
+
+        List<BattleLog> savedBattleLogs = null;
+        try {
+            savedBattleLogs = battleLogRepository.insert(battleLogs);
+            if (monsterService.grantExperience(grants, username) != grants.size()) {
+                throw new IllegalStateException("Winning monsters not found");
+            }
+            return savedBattleLogs;
+        } catch (RuntimeException e) {
+            compensate(username, loserIds, savedBattleLogs == null ? List.of() : savedBattleLogs, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Undo the pull and the inserted logs of a failed settlement, a transaction rolls them back on its own.
+     * The loser goes back even when the collection is full, both steps are attempted and their
+     * failures are attached to the settlement failure, which the caller rethrows.
+     */
+    private void compensate(String username, List<String> loserIds, List<BattleLog> savedBattleLogs,
+            RuntimeException failure) {
+        if (transactionTemplate != null) {
+            return;
+        }
+        try {
+            battleLogRepository.deleteAll(savedBattleLogs);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        try {
+            if (!playerService.restoreMonsters(username, loserIds)) {
+                failure.addSuppressed(new IllegalStateException(
+                        "Could not return monsters " + loserIds + " to " + username + ": player not found"));
+            }
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.gatcha.api.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Creates the indexes declared on the @Document entities at startup and
+ * verifies that they exist with the declared keys, directions and options.
+ * This runs once every singleton is created, before the web server starts, so
+ * startup fails without serving a request if an index cannot be created or
+ * differs from its declaration.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    @Bean
+    public SmartInitializingSingleton mongoIndexInitializer(MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext) {
+        return () -> {
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+            for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+                if (!entity.isAnnotationPresent(Document.class)) {
+                    continue;
+                }
+                IndexOperations indexOperations = mongoTemplate.indexOps(entity.getType());
+                Iterable<? extends IndexDefinition> definitions = resolver.resolveIndexFor(entity.getType());
+                for (IndexDefinition definition : definitions) {
+                    indexOperations.ensureIndex(definition);
+                }
+                List<org.bson.Document> existing = mongoTemplate.getCollection(entity.getCollection())
+                        .listIndexes().into(new ArrayList<>());
+                verifyIndexes(entity.getCollection(), existing, definitions);
+            }
+        };
+    }
+
+    /**
+     * Check every declared index against the indexes listed by the server
+     */
+    static void verifyIndexes(String collection, List<org.bson.Document> existing,
+            Iterable<? extends IndexDefinition> definitions) {
+        for (IndexDefinition definition : definitions) {
+            org.bson.Document keys = definition.getIndexKeys();
+            org.bson.Document options = definition.getIndexOptions();
+            String declaredName = options.getString("name");
+            String name = declaredName != null ? declaredName : keys.toJson();
+
+            // A declared name identifies the index, otherwise its keys do
+            org.bson.Document index = existing.stream()
+                    .filter(candidate -> declaredName != null
+                            ? declaredName.equals(candidate.getString("name"))
+                            : sameKeys(keys, candidate.get("key", org.bson.Document.class)))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Missing index " + name + " on collection " + collection));
+
+            if (!sameKeys(keys, index.get("key", org.bson.Document.class))) {
+                throw new IllegalStateException("Index " + name + " on collection " + collection + " has keys "
+                        + index.get("key", org.bson.Document.class).toJson() + ", declared " + keys.toJson());
+            }
+            if (options.getBoolean("unique", false) != index.getBoolean("unique", false)) {
+                throw new IllegalStateException("Index " + name + " on collection " + collection
+                        + (options.getBoolean("unique", false) ? " is not unique" : " is unique"));
+            }
+            Long declaredTtl = asLong(options.get("expireAfterSeconds"));
+            Long ttl = asLong(index.get("expireAfterSeconds"));
+            if (!Objects.equals(declaredTtl, ttl)) {
+                throw new IllegalStateException("Index " + name + " on collection " + collection
+                        + " expires after " + ttl + " seconds, declared " + declaredTtl);
+            }
+        }
+    }
+
+    /**
+     * Same fields in the same order with the same direction or type, whatever the numeric type the server returns
+     */
+    private static boolean sameKeys(org.bson.Document declared, org.bson.Document actual) {
+        if (actual == null || declared.size() != actual.size()) {
+            return false;
+        }
+        List<Map.Entry<String, Object>> declaredKeys = new ArrayList<>(declared.entrySet());
+        List<Map.Entry<String, Object>> actualKeys = new ArrayList<>(actual.entrySet());
+        for (int i = 0; i < declaredKeys.size(); i++) {
+            Object declaredValue = declaredKeys.get(i).getValue();
+            Object actualValue = actualKeys.get(i).getValue();
+            boolean sameValue = declaredValue instanceof Number && actualValue instanceof Number
+                    ? ((Number) declaredValue).doubleValue() == ((Number) actualValue).doubleValue()
+                    : Objects.equals(declaredValue, actualValue);
+            if (!declaredKeys.get(i).getKey().equals(actualKeys.get(i).getKey()) || !sameValue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.gatcha.api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document transactions for battle settlement, they need MongoDB
+ * running as a replica set
+ */
+@Configuration
+@ConditionalOnProperty(name = "battle.settlement.transactional", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+}
@@ -1,29 +1,44 @@
 package com.gatcha.api.config;
 
+import com.gatcha.api.auth.filter.TokenAuthenticationFilter;
+import com.gatcha.api.auth.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.Set;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthService authService,
+            MeterRegistry meterRegistry, @Value("${auth.designers:}") Set<String> designers) throws Exception {
         http
                 .csrf().disable()
                 .authorizeRequests()
-                .antMatchers("/api/auth/login").permitAll()
-                .antMatchers("/api/summon/multi").permitAll()
-                .anyRequest().permitAll() // Simplified version, all requests are allowed, actually handled by our
-                                          // custom authentication service
+                .antMatchers("/api/auth/**").permitAll()
+                .antMatchers("/api/simulations/**").hasRole("DESIGNER") // Game design tools only
+                .antMatchers("/api/**").authenticated() // Principal set by TokenAuthenticationFilter
+                .anyRequest().permitAll()
+                .and()
+                .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                .and()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
-                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+                .addFilterBefore(new TokenAuthenticationFilter(authService, meterRegistry, designers),
+                        UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -32,4 +47,4 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.gatcha.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class SimulationConfig {
+
+    /**
+     * Dedicated pool for simulations, so they neither compete with the common
+     * pool nor hold request threads
+     *
+     * @param parallelism Number of worker threads, all cores when 0
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool simulationPool(@Value("${simulation.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("simulation-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+}
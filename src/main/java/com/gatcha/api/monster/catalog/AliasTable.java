@@ -0,0 +1,85 @@
+package com.gatcha.api.monster.catalog;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Walker/Vose alias table for sampling a discrete distribution in O(1).
+ * Built once in O(n) from the (unnormalized) weights.
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights Non-negative weights, at least one
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one weight is required");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Weights must be non-negative");
+            }
+            total += weight;
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale weights so that the average is 1, all zero weights fall back to uniform
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = total > 0 ? weights[i] * n / total : 1.0;
+            if (scaled[i] < 1.0) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+
+        // Remaining columns are full (up to rounding errors)
+        while (!large.isEmpty()) {
+            probability[large.pop()] = 1.0;
+        }
+        while (!small.isEmpty()) {
+            probability[small.pop()] = 1.0;
+        }
+    }
+
+    /**
+     * Draw an index with probability proportional to its weight
+     *
+     * @param random Random source
+     * @return Sampled index
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,104 @@
+package com.gatcha.api.monster.catalog;
+
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.repository.MonsterTemplateRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory catalog of monster templates.
+ * Templates are loaded once from MongoDB together with an alias table over
+ * their loot rates, so summoning needs no database access. The returned
+ * templates are shared and must not be modified.
+ */
+@Component
+public class MonsterTemplateCatalog {
+
+    private final MonsterTemplateRepository monsterTemplateRepository;
+    private volatile Snapshot snapshot;
+
+    public MonsterTemplateCatalog(MonsterTemplateRepository monsterTemplateRepository) {
+        this.monsterTemplateRepository = monsterTemplateRepository;
+    }
+
+    /**
+     * Randomly select a template according to the loot rates
+     *
+     * @return Selected template
+     */
+    public MonsterTemplate draw() {
+        Snapshot current = snapshot();
+        return current.templates.get(current.aliasTable.sample(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Get a template by ID
+     *
+     * @param id Template ID
+     * @return Template, if it exists
+     */
+    public Optional<MonsterTemplate> findById(Integer id) {
+        return Optional.ofNullable(snapshot().templatesById.get(id));
+    }
+
+    /**
+     * Get all templates
+     *
+     * @return Unmodifiable list of templates
+     */
+    public List<MonsterTemplate> getTemplates() {
+        return snapshot().templates;
+    }
+
+    /**
+     * Reload the templates from MongoDB, e.g. after new templates were imported
+     */
+    public synchronized void reload() {
+        List<MonsterTemplate> templates = monsterTemplateRepository.findAll();
+        if (templates.isEmpty()) {
+            throw new IllegalStateException("No monster templates available");
+        }
+        snapshot = new Snapshot(templates);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable view of the templates at load time
+     */
+    private static final class Snapshot {
+        private final List<MonsterTemplate> templates;
+        private final Map<Integer, MonsterTemplate> templatesById;
+        private final AliasTable aliasTable;
+
+        private Snapshot(List<MonsterTemplate> templates) {
+            this.templates = List.copyOf(templates);
+
+            Map<Integer, MonsterTemplate> byId = new HashMap<>();
+            double[] lootRates = new double[templates.size()];
+            for (int i = 0; i < templates.size(); i++) {
+                byId.put(templates.get(i).getId(), templates.get(i));
+                lootRates[i] = templates.get(i).getLootRate();
+            }
+            this.templatesById = Collections.unmodifiableMap(byId);
+            this.aliasTable = new AliasTable(lootRates);
+        }
+    }
+}
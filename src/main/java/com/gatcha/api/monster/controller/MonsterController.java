@@ -1,11 +1,11 @@
 package com.gatcha.api.monster.controller;
 
-import com.gatcha.api.auth.service.AuthService;
 import com.gatcha.api.monster.dto.ExperienceRequest;
 import com.gatcha.api.monster.dto.SkillUpgradeRequest;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.service.MonsterService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,42 +15,36 @@ import java.util.List;
 public class MonsterController {
 
     private final MonsterService monsterService;
-    private final AuthService authService;
 
-    public MonsterController(MonsterService monsterService, AuthService authService) {
+    public MonsterController(MonsterService monsterService) {
         this.monsterService = monsterService;
-        this.authService = authService;
     }
 
     @GetMapping
-    public ResponseEntity<List<PlayerMonster>> getMonsters(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<List<PlayerMonster>> getMonsters(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(monsterService.getMonstersByUsername(username));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<PlayerMonster> getMonster(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String id) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(monsterService.getMonsterById(id, username));
     }
 
     @PostMapping("/{id}/experience")
     public ResponseEntity<PlayerMonster> addExperience(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String id,
             @RequestBody ExperienceRequest request) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(monsterService.addExperience(id, username, request.getExperience()));
     }
 
     @PostMapping("/{id}/skill")
     public ResponseEntity<PlayerMonster> upgradeSkill(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String id,
             @RequestBody SkillUpgradeRequest request) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(monsterService.upgradeSkill(id, username, request.getSkillNum()));
     }
 }
\ No newline at end of file
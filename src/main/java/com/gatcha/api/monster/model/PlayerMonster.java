@@ -1,9 +1,11 @@
 package com.gatcha.api.monster.model;
 
+import com.gatcha.api.utils.NameGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -13,11 +15,20 @@ import java.util.List;
 @AllArgsConstructor
 @Document(collection = "playerMonsters")
 public class PlayerMonster {
+    // Experience needed for a level up, and the attributes gained by it
+    public static final int LEVEL_UP_EXPERIENCE = 100;
+    public static final int LEVEL_UP_HP = 50;
+    public static final int LEVEL_UP_ATK = 10;
+    public static final int LEVEL_UP_DEF = 10;
+    public static final int LEVEL_UP_VIT = 5;
+
     @Id
     private String id;
     private String username;
     private String templateId;
     private String element;
+    // Display name, generated once when the monster is created
+    private String name;
     private int level;
     private int experience;
     private int hp;
@@ -26,6 +37,15 @@ public class PlayerMonster {
     private int vit;
     private List<Skill> skills;
     private int skillPoints;
+    @Version
+    private Long version;
+
+    /**
+     * Display name, generated from the ID for monsters stored before names were kept on the document
+     */
+    public String displayName() {
+        return name != null ? name : NameGenerator.cachedName(id, element);
+    }
 
     public void addExperience(int exp) {
         this.experience += exp;
@@ -33,7 +53,7 @@ public class PlayerMonster {
     }
 
     private void checkLevelUp() {
-        if (experience >= 100) {
+        if (experience >= LEVEL_UP_EXPERIENCE) {
             levelUp();
         }
     }
@@ -42,10 +62,10 @@ public class PlayerMonster {
         level++;
         experience = 0;
         // Increase base attributes
-        hp += 50;
-        atk += 10;
-        def += 10;
-        vit += 5;
+        hp += LEVEL_UP_HP;
+        atk += LEVEL_UP_ATK;
+        def += LEVEL_UP_DEF;
+        vit += LEVEL_UP_VIT;
         // Increase skill points
         skillPoints++;
     }
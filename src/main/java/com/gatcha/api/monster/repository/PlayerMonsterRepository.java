@@ -4,6 +4,7 @@ import com.gatcha.api.monster.model.PlayerMonster;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +13,6 @@ public interface PlayerMonsterRepository extends MongoRepository<PlayerMonster,
     List<PlayerMonster> findByUsername(String username);
 
     Optional<PlayerMonster> findByIdAndUsername(String id, String username);
+
+    List<PlayerMonster> findAllByIdInAndUsername(Collection<String> ids, String username);
 }
\ No newline at end of file
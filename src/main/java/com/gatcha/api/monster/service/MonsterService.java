@@ -1,7 +1,9 @@
 package com.gatcha.api.monster.service;
 
 import com.gatcha.api.monster.model.PlayerMonster;
+import org.springframework.data.util.Pair;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MonsterService {
@@ -9,9 +11,42 @@ public interface MonsterService {
 
     PlayerMonster getMonsterById(String id, String username);
 
+    /**
+     * Get several of a user's monsters with a single query
+     *
+     * @return Monsters in the order of the given IDs, without duplicates
+     * @throws IllegalArgumentException when a monster does not exist or belongs to another user
+     */
+    List<PlayerMonster> getMonstersByIds(Collection<String> ids, String username);
+
     PlayerMonster addExperience(String id, String username, int experience);
 
+    /**
+     * Add experience in a single atomic update, levelling the monster up on
+     * the server without reading it first
+     *
+     * @return True if the monster was found and updated
+     */
+    boolean grantExperience(String id, String username, int experience);
+
+    /**
+     * Apply several experience grants in one ordered bulk write, each grant
+     * being the same update as {@link #grantExperience(String, String, int)}.
+     * A monster may appear more than once and levels up once per grant.
+     *
+     * @param grants Monster ID and experience of each grant, in the order they are applied
+     * @return Number of grants that found their monster
+     */
+    int grantExperience(List<Pair<String, Integer>> grants, String username);
+
     PlayerMonster upgradeSkill(String id, String username, int skillNum);
 
     PlayerMonster createMonsterFromTemplate(Integer templateId, String username);
+
+    List<PlayerMonster> createMonstersFromTemplates(List<Integer> templateIds, String username);
+
+    /**
+     * Build a level 1 monster from a template without saving it
+     */
+    PlayerMonster buildMonster(Integer templateId, String username);
 }
\ No newline at end of file
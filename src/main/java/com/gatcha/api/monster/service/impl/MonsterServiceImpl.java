@@ -1,26 +1,56 @@
 package com.gatcha.api.monster.service.impl;
 
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
 import com.gatcha.api.monster.model.MonsterTemplate;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.model.Skill;
-import com.gatcha.api.monster.repository.MonsterTemplateRepository;
 import com.gatcha.api.monster.repository.PlayerMonsterRepository;
 import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.utils.NameGenerator;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MonsterServiceImpl implements MonsterService {
 
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final PlayerMonsterRepository playerMonsterRepository;
-    private final MonsterTemplateRepository monsterTemplateRepository;
+    private final MonsterTemplateCatalog monsterTemplateCatalog;
+    private final MongoTemplate mongoTemplate;
 
     public MonsterServiceImpl(PlayerMonsterRepository playerMonsterRepository,
-            MonsterTemplateRepository monsterTemplateRepository) {
+            MonsterTemplateCatalog monsterTemplateCatalog,
+            MongoTemplate mongoTemplate) {
         this.playerMonsterRepository = playerMonsterRepository;
-        this.monsterTemplateRepository = monsterTemplateRepository;
+        this.monsterTemplateCatalog = monsterTemplateCatalog;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -34,29 +64,183 @@ public class MonsterServiceImpl implements MonsterService {
                 .orElseThrow(() -> new RuntimeException("Monster not found"));
     }
 
+    @Override
+    public List<PlayerMonster> getMonstersByIds(Collection<String> ids, String username) {
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        Map<String, PlayerMonster> monstersById = playerMonsterRepository
+                .findAllByIdInAndUsername(distinctIds, username)
+                .stream()
+                .collect(Collectors.toMap(PlayerMonster::getId, Function.identity()));
+
+        List<PlayerMonster> monsters = new ArrayList<>(distinctIds.size());
+        for (String id : distinctIds) {
+            PlayerMonster monster = monstersById.get(id);
+            if (monster == null) {
+                throw new IllegalArgumentException("Monster " + id + " does not belong to user " + username);
+            }
+            monsters.add(monster);
+        }
+        return monsters;
+    }
+
     @Override
     public PlayerMonster addExperience(String id, String username, int experience) {
-        PlayerMonster monster = getMonsterById(id, username);
-        monster.addExperience(experience);
-        return playerMonsterRepository.save(monster);
+        return updateWithRetry(id, username, monster -> {
+            int previousLevel = monster.getLevel();
+            monster.addExperience(experience);
+
+            Update update = new Update();
+            if (monster.getLevel() == previousLevel) {
+                update.inc("experience", experience);
+            } else {
+                // Level up resets experience and raises the base attributes
+                update.set("level", monster.getLevel())
+                        .set("experience", monster.getExperience())
+                        .set("hp", monster.getHp())
+                        .set("atk", monster.getAtk())
+                        .set("def", monster.getDef())
+                        .set("vit", monster.getVit())
+                        .set("skillPoints", monster.getSkillPoints());
+            }
+            return update;
+        });
+    }
+
+    @Override
+    public boolean grantExperience(String id, String username, int experience) {
+        Query query = new Query(Criteria.where("id").is(id).and("username").is(username));
+        return mongoTemplate.updateFirst(query, experienceUpdate(experience), PlayerMonster.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public int grantExperience(List<Pair<String, Integer>> grants, String username) {
+        if (grants.isEmpty()) {
+            return 0;
+        }
+
+        // Bulk operations only take classic updates, so the pipelines go straight to the collection
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(grants.size());
+        for (Pair<String, Integer> grant : grants) {
+            String id = grant.getFirst();
+            Document filter = new Document("_id", ObjectId.isValid(id) ? new ObjectId(id) : id)
+                    .append("username", username);
+            updates.add(new UpdateOneModel<>(filter,
+                    experienceUpdate(grant.getSecond()).toPipeline(Aggregation.DEFAULT_CONTEXT)));
+        }
+        BulkWriteResult result = mongoTemplate.execute(PlayerMonster.class,
+                collection -> collection.bulkWrite(updates, new BulkWriteOptions().ordered(true)));
+        return result.getMatchedCount();
+    }
+
+    /**
+     * Pipeline update doing what PlayerMonster.addExperience does: the
+     * experience is added first, then a monster at the threshold levels up
+     * and its experience is reset
+     */
+    private AggregationUpdate experienceUpdate(int experience) {
+        AggregationExpression levelsUp = ComparisonOperators.valueOf("experience")
+                .greaterThanEqualToValue(PlayerMonster.LEVEL_UP_EXPERIENCE);
+        return AggregationUpdate.update()
+                .set(SetOperation.set("experience").toValue(ArithmeticOperators.valueOf("experience").add(experience)))
+                .set(SetOperation.builder()
+                        .set("level").toValue(increaseOnLevelUp(levelsUp, "level", 1))
+                        .and().set("hp").toValue(increaseOnLevelUp(levelsUp, "hp", PlayerMonster.LEVEL_UP_HP))
+                        .and().set("atk").toValue(increaseOnLevelUp(levelsUp, "atk", PlayerMonster.LEVEL_UP_ATK))
+                        .and().set("def").toValue(increaseOnLevelUp(levelsUp, "def", PlayerMonster.LEVEL_UP_DEF))
+                        .and().set("vit").toValue(increaseOnLevelUp(levelsUp, "vit", PlayerMonster.LEVEL_UP_VIT))
+                        .and().set("skillPoints").toValue(increaseOnLevelUp(levelsUp, "skillPoints", 1))
+                        .and().set("experience").toValue(
+                                ConditionalOperators.when(levelsUp).then(0).otherwiseValueOf("experience"))
+                        // Documents written before versioning have no version field
+                        .and().set("version").toValue(
+                                ArithmeticOperators.valueOf(ConditionalOperators.ifNull("version").then(0)).add(1)));
+    }
+
+    private static AggregationExpression increaseOnLevelUp(AggregationExpression levelsUp, String field, int amount) {
+        return ConditionalOperators.when(levelsUp)
+                .then(ArithmeticOperators.valueOf(field).add(amount))
+                .otherwiseValueOf(field);
     }
 
     @Override
     public PlayerMonster upgradeSkill(String id, String username, int skillNum) {
-        PlayerMonster monster = getMonsterById(id, username);
-        monster.upgradeSkill(skillNum);
-        return playerMonsterRepository.save(monster);
+        return updateWithRetry(id, username, monster -> {
+            int[] previousLevels = monster.getSkills().stream().mapToInt(Skill::getLevel).toArray();
+            monster.upgradeSkill(skillNum);
+
+            // Only the upgraded skill and the skill points are written
+            Update update = new Update().set("skillPoints", monster.getSkillPoints());
+            for (int i = 0; i < previousLevels.length; i++) {
+                Skill skill = monster.getSkills().get(i);
+                if (skill.getLevel() != previousLevels[i]) {
+                    String path = "skills." + i + ".";
+                    update.set(path + "level", skill.getLevel())
+                            .set(path + "dmg", skill.getDmg())
+                            .set(path + "cooldown", skill.getCooldown());
+                    if (skill.getRatio() != null) {
+                        update.set(path + "ratio.percent", skill.getRatio().getPercent());
+                    }
+                }
+            }
+            return update;
+        });
+    }
+
+    /**
+     * Apply a mutation as a partial update guarded by the monster's version.
+     * The monster is re-read and the mutation re-applied when another write
+     * got in between, up to MAX_UPDATE_ATTEMPTS times.
+     *
+     * @param mutation Applies the change to the loaded monster and returns the matching update
+     * @return Updated monster
+     */
+    private PlayerMonster updateWithRetry(String id, String username, Function<PlayerMonster, Update> mutation) {
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            PlayerMonster monster = getMonsterById(id, username);
+            Long version = monster.getVersion();
+            Update update = mutation.apply(monster).inc("version", 1);
+
+            // Documents written before versioning have no version field, which {version: null} matches
+            Query query = new Query(Criteria.where("id").is(id)
+                    .and("username").is(username)
+                    .and("version").is(version));
+            if (mongoTemplate.updateFirst(query, update, PlayerMonster.class).getModifiedCount() > 0) {
+                monster.setVersion(version == null ? 1L : version + 1);
+                return monster;
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "Monster " + id + " was modified concurrently, please try again");
     }
 
     @Override
     public PlayerMonster createMonsterFromTemplate(Integer templateId, String username) {
-        MonsterTemplate template = monsterTemplateRepository.findById(templateId)
+        return playerMonsterRepository.save(buildMonster(templateId, username));
+    }
+
+    @Override
+    public List<PlayerMonster> createMonstersFromTemplates(List<Integer> templateIds, String username) {
+        List<PlayerMonster> monsters = templateIds.stream()
+                .map(templateId -> buildMonster(templateId, username))
+                .collect(Collectors.toList());
+
+        // Single insertMany for all new monsters
+        return playerMonsterRepository.insert(monsters);
+    }
+
+    @Override
+    public PlayerMonster buildMonster(Integer templateId, String username) {
+        MonsterTemplate template = monsterTemplateCatalog.findById(templateId)
                 .orElseThrow(() -> new RuntimeException("Monster template not found"));
 
         PlayerMonster monster = new PlayerMonster();
+        // The ID is assigned up front so the name can be generated from it once
+        monster.setId(new ObjectId().toHexString());
         monster.setUsername(username);
         monster.setTemplateId(String.valueOf(templateId));
         monster.setElement(template.getElement());
+        monster.setName(NameGenerator.generateName(monster.getId(), monster.getElement()));
         monster.setLevel(1);
         monster.setExperience(0);
         monster.setHp(template.getHp());
@@ -65,13 +249,15 @@ public class MonsterServiceImpl implements MonsterService {
         monster.setVit(template.getVit());
         monster.setSkillPoints(3); // Initially provide 3 skill points for testing
 
-        // Copy skills, but initialize level to 0
+        // Copy skills, but initialize level to 0 (templates are shared, so ratios are copied too)
         List<Skill> skills = template.getSkills().stream()
                 .map(skill -> {
                     Skill newSkill = new Skill();
                     newSkill.setNum(skill.getNum());
                     newSkill.setDmg(skill.getDmg());
-                    newSkill.setRatio(skill.getRatio());
+                    if (skill.getRatio() != null) {
+                        newSkill.setRatio(new Skill.Ratio(skill.getRatio().getStat(), skill.getRatio().getPercent()));
+                    }
                     newSkill.setCooldown(skill.getCooldown());
                     newSkill.setLevel(0);
                     newSkill.setLvlMax(skill.getLvlMax());
@@ -81,6 +267,6 @@ public class MonsterServiceImpl implements MonsterService {
 
         monster.setSkills(skills);
 
-        return playerMonsterRepository.save(monster);
+        return monster;
     }
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package com.gatcha.api.player.controller;
 
 import com.gatcha.api.auth.model.User;
-import com.gatcha.api.auth.service.AuthService;
 import com.gatcha.api.player.dto.ExperienceRequest;
 import com.gatcha.api.player.service.PlayerService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,58 +14,49 @@ import java.util.List;
 public class PlayerController {
 
     private final PlayerService playerService;
-    private final AuthService authService;
 
-    public PlayerController(PlayerService playerService, AuthService authService) {
+    public PlayerController(PlayerService playerService) {
         this.playerService = playerService;
-        this.authService = authService;
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<User> getProfile(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<User> getProfile(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(playerService.getProfile(username));
     }
 
     @GetMapping("/monsters")
-    public ResponseEntity<List<String>> getMonsters(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<List<String>> getMonsters(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(playerService.getMonsters(username));
     }
 
     @GetMapping("/level")
-    public ResponseEntity<Integer> getLevel(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<Integer> getLevel(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(playerService.getLevel(username));
     }
 
     @PostMapping("/experience")
     public ResponseEntity<User> addExperience(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @RequestBody ExperienceRequest request) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(playerService.addExperience(username, request.getExperience()));
     }
 
     @PostMapping("/levelup")
-    public ResponseEntity<User> levelUp(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<User> levelUp(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(playerService.levelUp(username));
     }
 
     @PostMapping("/monsters/{monsterId}")
     public ResponseEntity<Boolean> addMonster(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String monsterId) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(playerService.addMonster(username, monsterId));
     }
 
     @DeleteMapping("/monsters/{monsterId}")
     public ResponseEntity<Boolean> removeMonster(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal String username,
             @PathVariable String monsterId) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
         return ResponseEntity.ok(playerService.removeMonster(username, monsterId));
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.gatcha.api.player.service;
 
 import com.gatcha.api.auth.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PlayerService {
@@ -17,5 +18,31 @@ public interface PlayerService {
 
     boolean addMonster(String username, String monsterId);
 
+    boolean addMonsters(String username, List<String> monsterIds);
+
+    /**
+     * Put back monsters removed by a failed operation, whatever the room left in the collection
+     *
+     * @return True if the player was found
+     */
+    boolean restoreMonsters(String username, Collection<String> monsterIds);
+
     boolean removeMonster(String username, String monsterId);
+
+    /**
+     * Remove several monsters in one write, skipping those the player no longer owns
+     *
+     * @return True if at least one of them was removed
+     */
+    boolean removeMonsters(String username, Collection<String> monsterIds);
+
+    /**
+     * Remove several monsters in one write, only if the player still owns every one of them
+     * as well as every monster to keep
+     *
+     * @param monsterIds Monsters to remove
+     * @param keptIds    Monsters that must still be owned, they are not removed
+     * @return True if they were all removed, false if nothing was removed
+     */
+    boolean removeMonstersIfOwned(String username, Collection<String> monsterIds, Collection<String> keptIds);
 }
\ No newline at end of file
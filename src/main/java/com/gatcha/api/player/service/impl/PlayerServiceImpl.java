@@ -3,17 +3,38 @@ package com.gatcha.api.player.service.impl;
 import com.gatcha.api.auth.model.User;
 import com.gatcha.api.auth.repository.UserRepository;
 import com.gatcha.api.player.service.PlayerService;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class PlayerServiceImpl implements PlayerService {
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
-    public PlayerServiceImpl(UserRepository userRepository) {
+    public PlayerServiceImpl(UserRepository userRepository, MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -36,39 +57,131 @@ public class PlayerServiceImpl implements PlayerService {
 
     @Override
     public User addExperience(String username, int experience) {
-        User user = getProfile(username);
-        user.addExperience(experience);
-        return userRepository.save(user);
+        // Experience and level are updated in place so the monsters list written
+        // concurrently by $push/$pull is never rewritten from a stale copy
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(SetOperation.set("experience").toValue(ArithmeticOperators.valueOf("experience").add(experience)))
+                .set(levelUpOperation());
+        User user = mongoTemplate.findAndModify(new Query(Criteria.where("username").is(username)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return user;
     }
 
     @Override
     public User levelUp(String username) {
-        User user = getProfile(username);
-        if (user.getExperience() >= user.getMaxExperience() && user.getLevel() < 50) {
-            user.addExperience(user.getMaxExperience()); // Trigger level up
-            return userRepository.save(user);
+        // The level-up condition is part of the filter, so check and update are atomic
+        Query query = new BasicQuery(new Document("username", username)
+                .append("$expr", levelsUp().toDocument(Aggregation.DEFAULT_CONTEXT)));
+        AggregationUpdate update = AggregationUpdate.update().set(levelUpOperation());
+        User user = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (user == null) {
+            throw new RuntimeException("Cannot level up, not enough experience or already at max level");
         }
-        throw new RuntimeException("Cannot level up, not enough experience or already at max level");
+        return user;
+    }
+
+    /**
+     * Expression mirroring the condition in User.checkLevelUp()
+     */
+    private static AggregationExpression levelsUp() {
+        return BooleanOperators.And.and(
+                ComparisonOperators.valueOf("experience").greaterThanEqualTo("maxExperience"),
+                ComparisonOperators.valueOf("level").lessThanValue(50));
+    }
+
+    /**
+     * Stage doing what User.levelUp() does, only where the level-up condition holds
+     */
+    private static SetOperation levelUpOperation() {
+        AggregationExpression levelsUp = levelsUp();
+        AggregationExpression level = ArithmeticOperators.valueOf("level").add(1);
+        AggregationExpression maxExperience = ConvertOperators.ToInt.toInt(
+                ArithmeticOperators.valueOf("maxExperience").multiplyBy(1.1));
+        return SetOperation.builder()
+                .set("level").toValue(ConditionalOperators.when(levelsUp).then(level).otherwiseValueOf("level"))
+                .and().set("experience").toValue(
+                        ConditionalOperators.when(levelsUp).then(0).otherwiseValueOf("experience"))
+                .and().set("maxExperience").toValue(
+                        ConditionalOperators.when(levelsUp).then(maxExperience).otherwiseValueOf("maxExperience"));
     }
 
     @Override
     public boolean addMonster(String username, String monsterId) {
-        User user = getProfile(username);
-        if (user.canAddMonster()) {
-            user.getMonsters().add(monsterId);
-            userRepository.save(user);
+        return addMonsters(username, List.of(monsterId));
+    }
+
+    @Override
+    public boolean addMonsters(String username, List<String> monsterIds) {
+        if (monsterIds.isEmpty()) {
+            return true;
+        }
+
+        // Single conditional update: the filter only matches while the roster has room
+        // for all new IDs (size(monsters) + n <= 10 + level - 1), so the check and the
+        // $push/$each are atomic without loading or rewriting the document
+        Query query = new BasicQuery(new Document("username", username)
+                .append("$expr", hasFreeSlots(monsterIds.size())));
+        Update update = new Update().push("monsters").each(monsterIds.toArray());
+        UpdateResult result = mongoTemplate.updateFirst(query, update, User.class);
+        return result.getModifiedCount() > 0;
+    }
+
+    /**
+     * Expression mirroring User.canAddMonster() for a given number of new monsters
+     */
+    private static Document hasFreeSlots(int count) {
+        Document newSize = new Document("$add", List.of(new Document("$size", "$monsters"), count));
+        Document maxMonsters = new Document("$add", List.of("$level", 9));
+        return new Document("$lte", List.of(newSize, maxMonsters));
+    }
+
+    @Override
+    public boolean restoreMonsters(String username, Collection<String> monsterIds) {
+        if (monsterIds.isEmpty()) {
             return true;
         }
-        return false;
+
+        // No slot check: the monsters were in the collection before, so they go back even if
+        // it filled up meanwhile, and $addToSet keeps a retried restore from adding them twice
+        Query query = new Query(Criteria.where("username").is(username));
+        Update update = new Update().addToSet("monsters").each(monsterIds.toArray());
+        return mongoTemplate.updateFirst(query, update, User.class).getMatchedCount() > 0;
     }
 
     @Override
     public boolean removeMonster(String username, String monsterId) {
-        User user = getProfile(username);
-        boolean removed = user.getMonsters().remove(monsterId);
-        if (removed) {
-            userRepository.save(user);
+        Query query = new Query(Criteria.where("username").is(username));
+        Update update = new Update().pull("monsters", monsterId);
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean removeMonsters(String username, Collection<String> monsterIds) {
+        if (monsterIds.isEmpty()) {
+            return false;
         }
-        return removed;
+
+        // Remove all IDs in a single $pull with $in, whatever their number
+        Query query = new Query(Criteria.where("username").is(username));
+        Update update = new Update().pull("monsters", new Document("$in", monsterIds));
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean removeMonstersIfOwned(String username, Collection<String> monsterIds, Collection<String> keptIds) {
+        if (monsterIds.isEmpty()) {
+            return false;
+        }
+
+        // Nothing is removed unless the player still owns every monster to remove and to keep
+        List<String> ownedIds = new ArrayList<>(monsterIds);
+        ownedIds.addAll(keptIds);
+        Query query = new Query(Criteria.where("username").is(username).and("monsters").all(ownedIds));
+        Update update = new Update().pullAll("monsters", monsterIds.toArray());
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() > 0;
     }
-}
\ No newline at end of file
+}
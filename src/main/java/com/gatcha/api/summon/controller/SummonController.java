@@ -1,10 +1,10 @@
 package com.gatcha.api.summon.controller;
 
-import com.gatcha.api.auth.service.AuthService;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.summon.model.SummonLog;
 import com.gatcha.api.summon.service.SummonService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -17,59 +17,51 @@ import java.util.List;
 public class SummonController {
 
     private final SummonService summonService;
-    private final AuthService authService;
 
-    public SummonController(SummonService summonService, AuthService authService) {
+    public SummonController(SummonService summonService) {
         this.summonService = summonService;
-        this.authService = authService;
     }
 
     /**
      * Summon a single monster
      * 
-     * @param token Authorization token
+     * @param username Authenticated username
      * @return The summoned monster
      */
     @PostMapping
-    public ResponseEntity<PlayerMonster> summon(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<PlayerMonster> summon(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(summonService.summon(username));
     }
 
     /**
      * Summon multiple monsters (up to 10)
      * 
-     * @param token Authorization token
+     * @param username Authenticated username
      * @return List of summoned monsters
      */
     @PostMapping("/multi")
-    public ResponseEntity<List<PlayerMonster>> summonMultiple(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<List<PlayerMonster>> summonMultiple(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(summonService.summonMultiple(username, 10));
     }
 
     /**
      * Get summon history for the current user
      * 
-     * @param token Authorization token
+     * @param username Authenticated username
      * @return List of summon logs
      */
     @GetMapping("/history")
-    public ResponseEntity<List<SummonLog>> getSummonHistory(@RequestHeader("Authorization") String token) {
-        String username = authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<List<SummonLog>> getSummonHistory(@AuthenticationPrincipal String username) {
         return ResponseEntity.ok(summonService.getSummonHistory(username));
     }
 
     /**
      * Reprocess failed summons
      * 
-     * @param token Authorization token
      * @return Void
      */
     @PostMapping("/reprocess")
-    public ResponseEntity<Void> reprocessFailedSummons(@RequestHeader("Authorization") String token) {
-        // Validate token, but don't use the username
-        authService.validateToken(token.replace("Bearer ", ""));
+    public ResponseEntity<Void> reprocessFailedSummons() {
         summonService.reprocessFailedSummons();
         return ResponseEntity.ok().build();
     }
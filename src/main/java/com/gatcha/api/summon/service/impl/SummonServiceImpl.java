@@ -1,8 +1,9 @@
 package com.gatcha.api.summon.service.impl;
 
+import com.gatcha.api.auth.model.User;
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
 import com.gatcha.api.monster.model.MonsterTemplate;
 import com.gatcha.api.monster.model.PlayerMonster;
-import com.gatcha.api.monster.repository.MonsterTemplateRepository;
 import com.gatcha.api.monster.service.MonsterService;
 import com.gatcha.api.player.service.PlayerService;
 import com.gatcha.api.summon.model.SummonLog;
@@ -12,22 +13,20 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 @Service
 public class SummonServiceImpl implements SummonService {
 
-    private final MonsterTemplateRepository monsterTemplateRepository;
+    private final MonsterTemplateCatalog monsterTemplateCatalog;
     private final SummonLogRepository summonLogRepository;
     private final MonsterService monsterService;
     private final PlayerService playerService;
-    private final Random random = new Random();
 
-    public SummonServiceImpl(MonsterTemplateRepository monsterTemplateRepository,
+    public SummonServiceImpl(MonsterTemplateCatalog monsterTemplateCatalog,
             SummonLogRepository summonLogRepository,
             MonsterService monsterService,
             PlayerService playerService) {
-        this.monsterTemplateRepository = monsterTemplateRepository;
+        this.monsterTemplateCatalog = monsterTemplateCatalog;
         this.summonLogRepository = summonLogRepository;
         this.monsterService = monsterService;
         this.playerService = playerService;
@@ -35,30 +34,8 @@ public class SummonServiceImpl implements SummonService {
 
     @Override
     public PlayerMonster summon(String username) {
-        // Get all monster templates
-        List<MonsterTemplate> templates = monsterTemplateRepository.findAll();
-
-        // Calculate total probability
-        double totalRate = templates.stream()
-                .mapToDouble(MonsterTemplate::getLootRate)
-                .sum();
-
-        // Randomly select a monster
-        double randomValue = random.nextDouble() * totalRate;
-        double cumulativeRate = 0.0;
-        MonsterTemplate selectedTemplate = null;
-
-        for (MonsterTemplate template : templates) {
-            cumulativeRate += template.getLootRate();
-            if (randomValue <= cumulativeRate) {
-                selectedTemplate = template;
-                break;
-            }
-        }
-
-        if (selectedTemplate == null) {
-            selectedTemplate = templates.get(0); // Default to the first one
-        }
+        // Randomly select a monster, weighted by loot rate
+        MonsterTemplate selectedTemplate = monsterTemplateCatalog.draw();
 
         // Record summon log, convert ID to string for storage
         SummonLog summonLog = new SummonLog(username, String.valueOf(selectedTemplate.getId()));
@@ -100,12 +77,10 @@ public class SummonServiceImpl implements SummonService {
 
         System.out.println("Starting multiple summons for user " + username + ", requested count: " + count);
 
-        // Create a list to store summoned monsters
-        List<PlayerMonster> summonedMonsters = new ArrayList<>();
-
-        // Get player's current monster count and maximum monster count
-        int currentMonsterCount = playerService.getMonsters(username).size();
-        int maxMonsterCount = playerService.getProfile(username).getMaxMonsters();
+        // Get player's current monster count and maximum monster count from a single read
+        User user = playerService.getProfile(username);
+        int currentMonsterCount = user.getMonsters().size();
+        int maxMonsterCount = user.getMaxMonsters();
 
         // Calculate how many monsters can be summoned
         int availableSlots = maxMonsterCount - currentMonsterCount;
@@ -123,23 +98,48 @@ public class SummonServiceImpl implements SummonService {
                     "You have reached your monster limit. Please level up or remove some monsters first");
         }
 
-        // Perform multiple summons
+        // Draw all results first, then persist them with a constant number of round-trips
+        List<Integer> templateIds = new ArrayList<>(actualCount);
+        List<SummonLog> summonLogs = new ArrayList<>(actualCount);
         for (int i = 0; i < actualCount; i++) {
-            try {
-                System.out.println("Performing summon " + (i + 1) + " for user " + username);
-                PlayerMonster monster = summon(username);
-                summonedMonsters.add(monster);
-                System.out.println("Summon " + (i + 1) + " successful, monster ID: " + monster.getId());
-            } catch (Exception e) {
-                // If summon fails, log the error but continue trying
-                System.out.println("Summon " + (i + 1) + " failed: " + e.getMessage());
-            }
+            Integer templateId = monsterTemplateCatalog.draw().getId();
+            templateIds.add(templateId);
+            summonLogs.add(new SummonLog(username, String.valueOf(templateId)));
         }
 
-        // If no monsters were successfully summoned, throw an exception
-        if (summonedMonsters.isEmpty()) {
-            System.out.println("All summons failed for user " + username);
-            throw new RuntimeException("All summons failed, please try again later");
+        List<PlayerMonster> summonedMonsters;
+        try {
+            summonedMonsters = monsterService.createMonstersFromTemplates(templateIds, username);
+        } catch (Exception e) {
+            // Record the draws as unprocessed so they can be reprocessed later
+            System.out.println("All summons failed for user " + username + ": " + e.getMessage());
+            summonLogRepository.insert(summonLogs);
+            throw new RuntimeException("All summons failed, please try again later", e);
+        }
+
+        List<String> monsterIds = new ArrayList<>(summonedMonsters.size());
+        for (int i = 0; i < summonedMonsters.size(); i++) {
+            String monsterId = summonedMonsters.get(i).getId();
+            monsterIds.add(monsterId);
+            summonLogs.get(i).setMonsterId(monsterId);
+        }
+
+        boolean added;
+        try {
+            added = playerService.addMonsters(username, monsterIds);
+        } catch (Exception e) {
+            System.out.println("Failed to add monsters for user " + username + ": " + e.getMessage());
+            added = false;
+        }
+
+        // Logs keep the monster IDs, so failed ones are only re-attached on reprocessing
+        for (SummonLog summonLog : summonLogs) {
+            summonLog.setProcessed(added);
+        }
+        summonLogRepository.insert(summonLogs);
+
+        if (!added) {
+            throw new RuntimeException("Failed to add monsters to player's list");
         }
 
         System.out.println("User " + username + " successfully summoned " + summonedMonsters.size() + " monsters");
@@ -152,16 +152,19 @@ public class SummonServiceImpl implements SummonService {
 
         for (SummonLog summonLog : failedSummons) {
             try {
-                // Create monster, convert string ID to integer
-                Integer templateId = Integer.parseInt(summonLog.getTemplateId());
-                PlayerMonster monster = monsterService.createMonsterFromTemplate(templateId, summonLog.getUsername());
+                // Reuse the monster if it was already created, otherwise create it (convert string ID to integer)
+                String monsterId = summonLog.getMonsterId();
+                if (monsterId == null) {
+                    Integer templateId = Integer.parseInt(summonLog.getTemplateId());
+                    monsterId = monsterService.createMonsterFromTemplate(templateId, summonLog.getUsername()).getId();
+                }
 
                 // Add monster to player's list
-                boolean added = playerService.addMonster(summonLog.getUsername(), monster.getId());
+                boolean added = playerService.addMonster(summonLog.getUsername(), monsterId);
 
                 if (added) {
                     // Update summon log
-                    summonLog.setMonsterId(monster.getId());
+                    summonLog.setMonsterId(monsterId);
                     summonLog.setProcessed(true);
                     summonLogRepository.save(summonLog);
                 }
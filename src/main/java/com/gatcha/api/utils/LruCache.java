@@ -0,0 +1,79 @@
+package com.gatcha.api.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Small bounded LRU cache, safe for concurrent use.
+ * Intended for memoizing values that also live in MongoDB, so losing an
+ * entry to eviction only costs a database lookup.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final Map<K, V> entries;
+
+    /**
+     * @param maxSize Maximum number of entries, the least recently used entry is evicted beyond it
+     */
+    public LruCache(int maxSize) {
+        this(maxSize, (key, value) -> {
+        });
+    }
+
+    /**
+     * @param maxSize          Maximum number of entries, the least recently used entry is evicted beyond it
+     * @param evictionListener Called with each evicted entry, while holding the cache lock
+     */
+    public LruCache(int maxSize, BiConsumer<K, V> evictionListener) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictionListener.accept(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a value and mark it as recently used
+     *
+     * @param key Key
+     * @return Value, or null if not cached
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Cache a value
+     *
+     * @return Previous value for the key, or null
+     */
+    public synchronized V put(K key, V value) {
+        return entries.put(key, value);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
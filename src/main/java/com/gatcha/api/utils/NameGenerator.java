@@ -24,6 +24,31 @@ public class NameGenerator {
             "Ruler", "Dominator", "Explorer", "Predator", "Ranger", "Warlock", "Summoner", "Elementalist",
             "Swordsman", "Archer", "Gunner", "Fighter", "Samurai", "Ninja", "Paladin", "Reaper");
 
+    // Direct-mapped memo of generated names, a colliding name simply replaces the previous one
+    private static final int MEMO_SIZE = 4096;
+    private static final MemoEntry[] memo = new MemoEntry[MEMO_SIZE];
+
+    /**
+     * Memoized name, for monsters stored without one.
+     * The memo is bounded and lock-free: entries are immutable, so a racing
+     * reader sees either a complete entry or a miss and regenerates the name.
+     * 
+     * @param monsterId Monster ID
+     * @param element   Monster element type
+     * @return Generated monster name, identical to {@link #generateName(String, String)}
+     */
+    public static String cachedName(String monsterId, String element) {
+        int slot = (monsterId.hashCode() * 31 + element.hashCode()) & (MEMO_SIZE - 1);
+        MemoEntry entry = memo[slot];
+        if (entry != null && entry.monsterId.equals(monsterId) && entry.element.equals(element)) {
+            return entry.name;
+        }
+
+        String name = generateName(monsterId, element);
+        memo[slot] = new MemoEntry(monsterId, element, name);
+        return name;
+    }
+
     /**
      * Generates a deterministic name based on monster ID and element type
      * 
@@ -74,4 +99,17 @@ public class NameGenerator {
         }
         return Math.abs(hash);
     }
-}
\ No newline at end of file
+
+    private static final class MemoEntry {
+        // Final fields, so an entry is safely published to other threads without a lock
+        private final String monsterId;
+        private final String element;
+        private final String name;
+
+        private MemoEntry(String monsterId, String element, String name) {
+            this.monsterId = monsterId;
+            this.element = element;
+            this.name = name;
+        }
+    }
+}
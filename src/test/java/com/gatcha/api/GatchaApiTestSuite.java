@@ -7,11 +7,17 @@ import org.junit.runner.RunWith;
 @SuppressWarnings("deprecation")
 @RunWith(JUnitPlatform.class)
 @SelectPackages({
+        "com.gatcha.api.auth.cache",
+        "com.gatcha.api.auth.filter",
         "com.gatcha.api.auth.service",
+        "com.gatcha.api.battle.engine",
         "com.gatcha.api.battle.service",
+        "com.gatcha.api.config",
+        "com.gatcha.api.monster.catalog",
         "com.gatcha.api.monster.service",
         "com.gatcha.api.player.service",
         "com.gatcha.api.summon.service",
+        "com.gatcha.api.utils",
         "com.gatcha.api.controller"
 })
 public class GatchaApiTestSuite {
@@ -0,0 +1,44 @@
+package com.gatcha.api.auth.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenCacheTest {
+
+    @Test
+    void staleEntryIsNotServed() {
+        // Arrange
+        TokenCache tokenCache = new TokenCache(100, 0);
+        tokenCache.put("token1", "user1", System.currentTimeMillis() + 3600000);
+
+        // Act
+        TokenCache.Entry entry = tokenCache.get("token1");
+
+        // Assert
+        assertNull(entry);
+        assertEquals(0, tokenCache.size());
+        assertEquals(1, tokenCache.getMissCount());
+    }
+
+    @Test
+    void putAtCapacityEvictsABatch() {
+        // Arrange
+        TokenCache tokenCache = new TokenCache(100, 60000);
+        long expiration = System.currentTimeMillis() + 3600000;
+        for (int i = 0; i < 100; i++) {
+            tokenCache.put("token" + i, "user" + i, expiration);
+        }
+
+        // Act
+        tokenCache.put("token100", "user100", expiration);
+        for (int i = 101; i < 110; i++) {
+            tokenCache.put("token" + i, "user" + i, expiration);
+        }
+
+        // Assert
+        assertEquals(100, tokenCache.size());
+        assertEquals(10, tokenCache.getEvictionCount());
+        assertNotNull(tokenCache.get("token109"));
+    }
+}
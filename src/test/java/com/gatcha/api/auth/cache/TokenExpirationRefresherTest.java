@@ -0,0 +1,108 @@
+package com.gatcha.api.auth.cache;
+
+import com.gatcha.api.auth.model.AuthToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenExpirationRefresherTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TokenExpirationRefresher refresher;
+    private TokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new TokenExpirationRefresher(mongoTemplate, 2, 60000);
+        tokenCache = new TokenCache(100, 60000);
+    }
+
+    @Test
+    void scheduleSkipsRecentExpiration() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        TokenCache.Entry entry = tokenCache.put("token1", "user1", now + 3600000);
+
+        // Act
+        entry.touch(now + 3600000 + 1000);
+        boolean queued = refresher.schedule("token1", entry);
+
+        // Assert
+        assertFalse(queued);
+        assertEquals(0, refresher.getPendingCount());
+    }
+
+    @Test
+    void scheduleCoalescesBumpsPerToken() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        TokenCache.Entry entry = tokenCache.put("token1", "user1", now);
+
+        // Act
+        entry.touch(now + 120000);
+        refresher.schedule("token1", entry);
+        entry.touch(now + 240000);
+        refresher.schedule("token1", entry);
+
+        // Assert
+        assertEquals(1, refresher.getPendingCount());
+    }
+
+    @Test
+    void flushWritesInBatches() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthToken.class)).thenReturn(bulkOperations);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            TokenCache.Entry entry = tokenCache.put("token" + i, "user" + i, now);
+            entry.touch(now + 120000);
+            refresher.schedule("token" + i, entry);
+        }
+
+        // Act
+        int written = refresher.flush();
+
+        // Assert
+        assertEquals(3, written);
+        assertEquals(0, refresher.getPendingCount());
+        verify(mongoTemplate, times(2)).bulkOps(BulkOperations.BulkMode.UNORDERED, AuthToken.class);
+        verify(bulkOperations, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void flushKeepsBumpsWhenWriteFails() {
+        // Arrange
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(AuthToken.class)))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("Test exception"));
+        long now = System.currentTimeMillis();
+        TokenCache.Entry entry = tokenCache.put("token1", "user1", now);
+        entry.touch(now + 120000);
+        refresher.schedule("token1", entry);
+
+        // Act
+        int written = refresher.flush();
+
+        // Assert
+        assertEquals(0, written);
+        assertEquals(1, refresher.getPendingCount());
+    }
+}
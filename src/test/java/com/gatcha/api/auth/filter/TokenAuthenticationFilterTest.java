@@ -0,0 +1,121 @@
+package com.gatcha.api.auth.filter;
+
+import com.gatcha.api.auth.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenAuthenticationFilterTest {
+
+    @Mock
+    private AuthService authService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new TokenAuthenticationFilter(authService, meterRegistry, Set.of("designer"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenSetsPrincipal() throws Exception {
+        // Arrange
+        when(authService.validateToken("test-token")).thenReturn("testuser");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/player/profile");
+        request.setServletPath("/api/player/profile");
+        request.addHeader("Authorization", "Bearer test-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getPrincipal());
+        assertEquals(1, meterRegistry.get("auth.filter.latency").tag("outcome", "authenticated").timer().count());
+    }
+
+    @Test
+    void designerGetsDesignerRole() throws Exception {
+        // Arrange
+        when(authService.validateToken("designer-token")).thenReturn("designer");
+        when(authService.validateToken("test-token")).thenReturn("testuser");
+        MockHttpServletRequest designerRequest = new MockHttpServletRequest("POST", "/api/simulations");
+        designerRequest.setServletPath("/api/simulations");
+        designerRequest.addHeader("Authorization", "Bearer designer-token");
+        MockHttpServletRequest playerRequest = new MockHttpServletRequest("POST", "/api/simulations");
+        playerRequest.setServletPath("/api/simulations");
+        playerRequest.addHeader("Authorization", "Bearer test-token");
+
+        // Act & Assert
+        filter.doFilter(designerRequest, new MockHttpServletResponse(), new MockFilterChain());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_DESIGNER".equals(authority.getAuthority())));
+        filter.doFilter(playerRequest, new MockHttpServletResponse(), new MockFilterChain());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().isEmpty());
+    }
+
+    @Test
+    void invalidTokenRejectedBeforeDispatch() throws Exception {
+        // Arrange
+        when(authService.validateToken("invalid-token")).thenThrow(new BadCredentialsException("Invalid token"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/player/profile");
+        request.setServletPath("/api/player/profile");
+        request.addHeader("Authorization", "Bearer invalid-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, meterRegistry.get("auth.filter.latency").tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void authEndpointsNotFiltered() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.addHeader("Authorization", "Bearer test-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verify(authService, never()).validateToken(anyString());
+    }
+}
@@ -1,24 +1,37 @@
 package com.gatcha.api.auth.service;
 
+import com.gatcha.api.auth.cache.TokenCache;
+import com.gatcha.api.auth.cache.TokenExpirationRefresher;
+import com.gatcha.api.auth.jwt.JwtTokenProvider;
+import com.gatcha.api.auth.jwt.TokenVersionStore;
 import com.gatcha.api.auth.model.AuthToken;
 import com.gatcha.api.auth.model.User;
 import com.gatcha.api.auth.repository.AuthTokenRepository;
 import com.gatcha.api.auth.repository.UserRepository;
 import com.gatcha.api.auth.service.impl.AuthServiceImpl;
+import com.mongodb.client.result.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +46,21 @@ public class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenExpirationRefresher expirationRefresher;
+
+    @Spy
+    private TokenCache tokenCache = new TokenCache(100, 60000);
+
+    // Backs the token versions, stubbed with an in-memory map of versions per user
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final Map<String, Long> tokenVersions = new HashMap<>();
+
+    @Spy
+    private JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(
+            "testSecretKey1234567890123456789012345678901234", 3600000,
+            new TokenVersionStore(mongoTemplate, 100, 60000));
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -55,6 +83,39 @@ public class AuthServiceTest {
 
         // Set token expiration time
         ReflectionTestUtils.setField(authService, "tokenExpirationTime", 3600000L);
+        ReflectionTestUtils.setField(authService, "tokenMode", "stateful");
+
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(User.class))).thenAnswer(invocation -> {
+                    String username = username(invocation.getArgument(0));
+                    return versionedUser(username, tokenVersions.merge(username, 1L, Long::sum));
+                });
+        lenient().when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenAnswer(invocation -> {
+            String username = username(invocation.getArgument(0));
+            return tokenVersions.containsKey(username) ? versionedUser(username, tokenVersions.get(username)) : null;
+        });
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenAnswer(invocation -> {
+                    Query query = invocation.getArgument(0);
+                    String username = username(query);
+                    Object version = query.getQueryObject().get("tokenVersion");
+                    if (version != null && version.equals(tokenVersions.get(username))) {
+                        tokenVersions.merge(username, 1L, Long::sum);
+                        return UpdateResult.acknowledged(1, 1L, null);
+                    }
+                    return UpdateResult.acknowledged(0, 0L, null);
+                });
+    }
+
+    private static String username(Query query) {
+        return query.getQueryObject().getString("username");
+    }
+
+    private static User versionedUser(String username, long version) {
+        User user = new User();
+        user.setUsername(username);
+        user.setTokenVersion(version);
+        return user;
     }
 
     @Test
@@ -111,14 +172,14 @@ public class AuthServiceTest {
     void validateTokenSuccess() {
         // Arrange
         when(authTokenRepository.findByToken("test-token")).thenReturn(Optional.of(testToken));
-        when(authTokenRepository.save(any(AuthToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         String username = authService.validateToken("test-token");
 
         // Assert
         assertEquals("testuser", username);
-        verify(authTokenRepository, times(1)).save(any(AuthToken.class));
+        verify(authTokenRepository, never()).save(any(AuthToken.class));
+        verify(expirationRefresher, times(1)).schedule(eq("test-token"), any(TokenCache.Entry.class));
     }
 
     @Test
@@ -146,4 +207,128 @@ public class AuthServiceTest {
         assertThrows(BadCredentialsException.class, () -> authService.validateToken("expired-token"));
         verify(authTokenRepository, never()).save(any(AuthToken.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateTokenServedFromCache() {
+        // Arrange
+        when(authTokenRepository.findByToken("test-token")).thenReturn(Optional.of(testToken));
+
+        // Act
+        String first = authService.validateToken("test-token");
+        String second = authService.validateToken("test-token");
+
+        // Assert
+        assertEquals("testuser", first);
+        assertEquals("testuser", second);
+        verify(authTokenRepository, times(1)).findByToken("test-token");
+        verify(expirationRefresher, times(2)).schedule(eq("test-token"), any(TokenCache.Entry.class));
+        assertEquals(1, tokenCache.getHitCount());
+        assertEquals(1, tokenCache.getMissCount());
+    }
+
+    @Test
+    void staleCachedTokenIsRevalidated() {
+        // Arrange
+        ReflectionTestUtils.setField(tokenCache, "maxAge", 0L);
+        when(authTokenRepository.findByToken("test-token"))
+                .thenReturn(Optional.of(testToken))
+                .thenReturn(Optional.empty());
+        authService.validateToken("test-token");
+
+        // Act & Assert: the token was removed from the store by another node
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken("test-token"));
+        verify(authTokenRepository, times(2)).findByToken("test-token");
+    }
+
+    @Test
+    void loginInvalidatesCachedToken() {
+        // Arrange
+        when(authTokenRepository.findByToken("test-token")).thenReturn(Optional.of(testToken));
+        when(authTokenRepository.save(any(AuthToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(authTokenRepository.findByUsername("testuser")).thenReturn(Optional.of(testToken));
+        authService.validateToken("test-token");
+
+        // Act
+        String newToken = authService.login("testuser", "password");
+
+        // Assert
+        assertNotEquals("test-token", newToken);
+        assertEquals(0, tokenCache.size());
+        when(authTokenRepository.findByToken("test-token")).thenReturn(Optional.empty());
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken("test-token"));
+    }
+
+    @Test
+    void jwtLoginAndValidateWithoutRepository() {
+        // Arrange
+        ReflectionTestUtils.setField(authService, "tokenMode", "jwt");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act
+        String token = authService.login("testuser", "password");
+        String username = authService.validateToken(token);
+
+        // Assert
+        assertEquals("testuser", username);
+        verifyNoInteractions(authTokenRepository);
+    }
+
+    @Test
+    void jwtValidateFailTamperedToken() {
+        // Arrange
+        ReflectionTestUtils.setField(authService, "tokenMode", "jwt");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        String token = authService.login("testuser", "password");
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken(token + "x"));
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken("test-token"));
+    }
+
+    @Test
+    void jwtLogoutRevokesToken() {
+        // Arrange
+        ReflectionTestUtils.setField(authService, "tokenMode", "jwt");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        String token = authService.login("testuser", "password");
+
+        // Act
+        authService.logout(token);
+
+        // Assert
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken(token));
+    }
+
+    @Test
+    void jwtLoginAgainRevokesPreviousToken() {
+        // Arrange
+        ReflectionTestUtils.setField(authService, "tokenMode", "jwt");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        String firstToken = authService.login("testuser", "password");
+
+        // Act
+        String secondToken = authService.login("testuser", "password");
+
+        // Assert
+        assertThrows(BadCredentialsException.class, () -> authService.validateToken(firstToken));
+        assertEquals("testuser", authService.validateToken(secondToken));
+    }
+
+    @Test
+    void jwtLogoutOnAnotherNodeRevokesToken() {
+        // Arrange: two nodes sharing the user documents, each with its own cached versions
+        ReflectionTestUtils.setField(authService, "tokenMode", "jwt");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        String token = authService.login("testuser", "password");
+        JwtTokenProvider otherNode = new JwtTokenProvider("testSecretKey1234567890123456789012345678901234",
+                3600000, new TokenVersionStore(mongoTemplate, 100, 0));
+
+        // Act
+        otherNode.revoke(token);
+
+        // Assert: the version is shared, nothing is kept per token
+        assertThrows(BadCredentialsException.class, () -> otherNode.validate(token));
+        assertEquals(2L, tokenVersions.get("testuser"));
+    }
+}
@@ -0,0 +1,240 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleEngineTest {
+
+    private static final String[] STATS = {"atk", "def", "hp", "vit"};
+
+    private final BattleEngine battleEngine = new BattleEngine(1000);
+
+    private PlayerMonster randomMonster(String id, Random random) {
+        PlayerMonster monster = new PlayerMonster();
+        monster.setId(id);
+        monster.setLevel(1 + random.nextInt(10));
+        monster.setHp(500 + random.nextInt(1500));
+        monster.setAtk(50 + random.nextInt(200));
+        monster.setDef(50 + random.nextInt(200));
+        monster.setVit(50 + random.nextInt(100));
+
+        List<Skill> skills = new ArrayList<>();
+        for (int num = 1; num <= 3; num++) {
+            Skill skill = new Skill();
+            skill.setNum(num);
+            skill.setDmg(50 + random.nextInt(200));
+            skill.setRatio(new Skill.Ratio(STATS[random.nextInt(STATS.length)], 10 + random.nextInt(50)));
+            skill.setCooldown(random.nextInt(4));
+            skills.add(skill);
+        }
+        monster.setSkills(skills);
+        return monster;
+    }
+
+    @Test
+    void fight_ShouldMatchReferenceSimulation() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            // Prepare
+            PlayerMonster monster1 = randomMonster("m1", random);
+            PlayerMonster monster2 = randomMonster("m2", random);
+            List<BattleLog.BattleAction> expected = new ArrayList<>();
+            String expectedWinner = referenceBattle(monster1, monster2, expected);
+
+            // Execute
+            BattleOutcome outcome = battleEngine.fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+
+            // Verify
+            assertEquals(expectedWinner, outcome.getWinner() == 0 ? "m1" : "m2");
+            assertEquals(expected.size(), outcome.getTurns());
+            assertMatchesReference(expected, outcome);
+        }
+    }
+
+    @Test
+    void fight_ShouldUseBasicAttackWithoutSkills() {
+        // Prepare
+        PlayerMonster monster1 = randomMonster("m1", new Random(1));
+        monster1.setSkills(new ArrayList<>());
+        monster1.setVit(1000);
+        PlayerMonster monster2 = randomMonster("m2", new Random(2));
+
+        // Execute
+        BattleOutcome outcome = battleEngine.fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+
+        // Verify
+        ActionTrace trace = outcome.getTrace();
+        assertEquals(0, trace.getAttacker(0));
+        assertEquals(0, trace.getSkillNum(0));
+        assertEquals(Math.max(1, monster1.getAtk() - monster2.getDef() / 2), trace.getDamage(0));
+    }
+
+    @Test
+    void fight_ShouldFastForwardDegenerateBattle() {
+        Random random = new Random(11);
+        for (int i = 0; i < 20; i++) {
+            // Prepare: heavy defense against weak attacks, no HP-based skills
+            PlayerMonster monster1 = degenerateMonster("m1", random);
+            PlayerMonster monster2 = degenerateMonster("m2", random);
+            List<BattleLog.BattleAction> expected = new ArrayList<>();
+            String expectedWinner = referenceBattle(monster1, monster2, expected, Integer.MAX_VALUE);
+
+            // Execute
+            BattleOutcome outcome = new BattleEngine(Integer.MAX_VALUE)
+                    .fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+
+            // Verify: same result, and the trace is the reference with the skipped turns cut out
+            assertEquals(expectedWinner, outcome.getWinner() == 0 ? "m1" : "m2");
+            assertEquals(expected.size(), outcome.getTurns());
+            assertTrue(outcome.getFastForwardedTurns() > 0);
+            assertTrue(outcome.getTrace().size() < expected.size() / 10,
+                    outcome.getTrace().size() + " of " + expected.size());
+            assertMatchesReference(expected, outcome);
+        }
+    }
+
+    @Test
+    void fight_ShouldStopAtTurnLimit() {
+        Random random = new Random(13);
+        for (int i = 0; i < 50; i++) {
+            // Prepare: degenerate battles, with and without HP-based skills
+            PlayerMonster monster1 = degenerateMonster("m1", random);
+            PlayerMonster monster2 = degenerateMonster("m2", random);
+            if (i % 2 == 0) {
+                monster1.getSkills().get(0).setRatio(new Skill.Ratio("hp", 1));
+            }
+            List<BattleLog.BattleAction> expected = new ArrayList<>();
+            String expectedWinner = referenceBattle(monster1, monster2, expected, 101);
+
+            // Execute
+            BattleOutcome outcome = new BattleEngine(101)
+                    .fight(CombatSnapshot.of(monster1), CombatSnapshot.of(monster2));
+
+            // Verify
+            assertEquals(expectedWinner, outcome.getWinner() == 0 ? "m1" : "m2");
+            assertEquals(101, outcome.getTurns());
+            assertTrue(outcome.isTurnLimitReached());
+            assertEquals(expected.get(expected.size() - 1),
+                    outcome.getTrace().toAction(outcome.getTrace().size() - 1, "m1", "m2"));
+        }
+    }
+
+    /**
+     * The trace must be the reference actions with the fast-forwarded turns cut out
+     */
+    private void assertMatchesReference(List<BattleLog.BattleAction> expected, BattleOutcome outcome) {
+        List<BattleLog.BattleAction> actions = outcome.getTrace().toActions("m1", "m2");
+        if (outcome.getFastForwardedAt() < 0) {
+            assertEquals(expected, actions);
+            return;
+        }
+        int at = outcome.getFastForwardedAt();
+        assertEquals(expected.subList(0, at), actions.subList(0, at));
+        assertEquals(expected.subList(at + outcome.getFastForwardedTurns(), expected.size()),
+                actions.subList(at, actions.size()));
+    }
+
+    private PlayerMonster degenerateMonster(String id, Random random) {
+        PlayerMonster monster = randomMonster(id, random);
+        monster.setHp(20000 + random.nextInt(20000));
+        monster.setAtk(10 + random.nextInt(20));
+        monster.setDef(600 + random.nextInt(400));
+        for (Skill skill : monster.getSkills()) {
+            skill.setDmg(50 + random.nextInt(200));
+            skill.setRatio(new Skill.Ratio("atk", 10 + random.nextInt(50)));
+            skill.setCooldown(1 + random.nextInt(4));
+        }
+        return monster;
+    }
+
+    private String referenceBattle(PlayerMonster monster1, PlayerMonster monster2,
+            List<BattleLog.BattleAction> actions) {
+        return referenceBattle(monster1, monster2, actions, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Straightforward simulation on the monster model the engine must reproduce
+     */
+    private String referenceBattle(PlayerMonster monster1, PlayerMonster monster2,
+            List<BattleLog.BattleAction> actions, int maxTurns) {
+        int hp1 = monster1.getHp();
+        int hp2 = monster2.getHp();
+        boolean monster1First = monster1.getVit() >= monster2.getVit();
+        Map<Integer, Integer> cooldowns1 = new HashMap<>();
+        Map<Integer, Integer> cooldowns2 = new HashMap<>();
+        monster1.getSkills().forEach(skill -> cooldowns1.put(skill.getNum(), 0));
+        monster2.getSkills().forEach(skill -> cooldowns2.put(skill.getNum(), 0));
+
+        while (hp1 > 0 && hp2 > 0 && actions.size() < maxTurns) {
+            if (monster1First) {
+                hp2 = referenceAttack(monster1, monster2, hp1, hp2, cooldowns1, actions);
+                if (hp2 <= 0 || actions.size() == maxTurns)
+                    break;
+                hp1 = referenceAttack(monster2, monster1, hp2, hp1, cooldowns2, actions);
+            } else {
+                hp1 = referenceAttack(monster2, monster1, hp2, hp1, cooldowns2, actions);
+                if (hp1 <= 0 || actions.size() == maxTurns)
+                    break;
+                hp2 = referenceAttack(monster1, monster2, hp1, hp2, cooldowns1, actions);
+            }
+            cooldowns1.replaceAll((num, cooldown) -> cooldown > 0 ? cooldown - 1 : cooldown);
+            cooldowns2.replaceAll((num, cooldown) -> cooldown > 0 ? cooldown - 1 : cooldown);
+        }
+        if (hp1 > 0 && hp2 > 0) {
+            // Turn limit, higher remaining HP fraction wins and the first attacker wins ties
+            double fraction1 = (double) hp1 / monster1.getHp();
+            double fraction2 = (double) hp2 / monster2.getHp();
+            if (fraction1 == fraction2) {
+                return monster1First ? monster1.getId() : monster2.getId();
+            }
+            return fraction1 > fraction2 ? monster1.getId() : monster2.getId();
+        }
+        return hp1 > 0 ? monster1.getId() : monster2.getId();
+    }
+
+    private int referenceAttack(PlayerMonster attacker, PlayerMonster defender, int attackerHp, int defenderHp,
+            Map<Integer, Integer> cooldowns, List<BattleLog.BattleAction> actions) {
+        List<Skill> skills = new ArrayList<>(attacker.getSkills());
+        skills.sort(Comparator.comparing(Skill::getNum).reversed());
+        Skill selected = skills.stream().filter(skill -> cooldowns.get(skill.getNum()) == 0).findFirst().orElse(null);
+
+        int damage;
+        if (selected == null) {
+            damage = Math.max(1, attacker.getAtk() - (defender.getDef() / 2));
+        } else {
+            double percent = selected.getRatio().getPercent() / 100.0;
+            double bonus = 0;
+            switch (selected.getRatio().getStat()) {
+                case "atk":
+                    bonus = attacker.getAtk() * percent;
+                    break;
+                case "def":
+                    bonus = attacker.getDef() * percent;
+                    break;
+                case "hp":
+                    bonus = attackerHp * percent;
+                    break;
+                case "vit":
+                    bonus = attacker.getVit() * percent;
+                    break;
+            }
+            damage = Math.max(1, (int) (selected.getDmg() + bonus) - (defender.getDef() / 3));
+            cooldowns.put(selected.getNum(), selected.getCooldown());
+        }
+        defenderHp -= damage;
+        actions.add(new BattleLog.BattleAction(attacker.getId(), selected == null ? 0 : selected.getNum(), damage,
+                defender.getId(), Math.max(0, defenderHp)));
+        return Math.max(0, defenderHp);
+    }
+}
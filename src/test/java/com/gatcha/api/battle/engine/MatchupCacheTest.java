@@ -0,0 +1,118 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MatchupCacheTest {
+
+    private PlayerMonster monster(String id, int hp, int atk) {
+        PlayerMonster monster = new PlayerMonster();
+        monster.setId(id);
+        monster.setLevel(1);
+        monster.setHp(hp);
+        monster.setAtk(atk);
+        monster.setDef(100);
+        monster.setVit(100);
+        Skill skill = new Skill();
+        skill.setNum(1);
+        skill.setDmg(100);
+        skill.setRatio(new Skill.Ratio("atk", 20));
+        skill.setCooldown(0);
+        monster.setSkills(List.of(skill));
+        return monster;
+    }
+
+    @Test
+    void fight_ShouldReuseOutcomeForIdenticalStats() {
+        // Prepare
+        BattleEngine battleEngine = spy(new BattleEngine(1000));
+        MatchupCache matchupCache = new MatchupCache(battleEngine, 10);
+
+        // Execute
+        BattleOutcome first = matchupCache.fight(CombatSnapshot.of(monster("a1", 1000, 150)),
+                CombatSnapshot.of(monster("b1", 1200, 120)));
+        BattleOutcome second = matchupCache.fight(CombatSnapshot.of(monster("a2", 1000, 150)),
+                CombatSnapshot.of(monster("b2", 1200, 120)));
+
+        // Verify
+        assertSame(first, second);
+        verify(battleEngine, times(1)).fight(any(), any());
+        assertEquals(1, matchupCache.getHitCount());
+        assertEquals(1, matchupCache.getMissCount());
+        assertTrue(matchupCache.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    void fight_ShouldDistinguishStatsAndOrder() {
+        // Prepare
+        MatchupCache matchupCache = new MatchupCache(new BattleEngine(1000), 10);
+        CombatSnapshot weak = CombatSnapshot.of(monster("a", 1000, 150));
+        CombatSnapshot strong = CombatSnapshot.of(monster("b", 1000, 151));
+
+        // Execute
+        matchupCache.fight(weak, strong);
+        matchupCache.fight(strong, weak);
+
+        // Verify
+        assertEquals(0, matchupCache.getHitCount());
+        assertEquals(2, matchupCache.size());
+    }
+
+    @Test
+    void fight_ShouldReleaseMemoryOnEviction() {
+        // Prepare
+        MatchupCache matchupCache = new MatchupCache(new BattleEngine(1000), 1);
+        matchupCache.fight(CombatSnapshot.of(monster("a", 1000, 150)), CombatSnapshot.of(monster("b", 1200, 120)));
+        long oneEntry = matchupCache.getEstimatedBytes();
+
+        // Execute
+        matchupCache.fight(CombatSnapshot.of(monster("a", 1000, 160)), CombatSnapshot.of(monster("b", 1200, 120)));
+
+        // Verify
+        assertEquals(1, matchupCache.size());
+        assertTrue(matchupCache.getEstimatedBytes() <= oneEntry * 2);
+    }
+
+    @Test
+    void bindTo_ShouldRegisterHitAndMissCounters() {
+        // Prepare
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchupCache matchupCache = new MatchupCache(new BattleEngine(1000), 10);
+        matchupCache.bindTo(registry);
+        CombatSnapshot first = CombatSnapshot.of(monster("a", 1000, 150));
+        CombatSnapshot second = CombatSnapshot.of(monster("b", 1200, 120));
+
+        // Execute
+        matchupCache.fight(first, second);
+        matchupCache.fight(first, second);
+
+        // Verify
+        assertEquals(1.0, registry.get("battle.matchup.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("battle.matchup.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("battle.matchup.cache.size").gauge().value());
+    }
+
+    @Test
+    void fight_ShouldBypassCacheWhenDisabled() {
+        // Prepare
+        BattleEngine battleEngine = spy(new BattleEngine(1000));
+        MatchupCache matchupCache = new MatchupCache(battleEngine, 0);
+        CombatSnapshot first = CombatSnapshot.of(monster("a", 1000, 150));
+        CombatSnapshot second = CombatSnapshot.of(monster("b", 1200, 120));
+
+        // Execute
+        matchupCache.fight(first, second);
+        matchupCache.fight(first, second);
+
+        // Verify
+        verify(battleEngine, times(2)).fight(any(), any());
+        assertEquals(0, matchupCache.size());
+    }
+}
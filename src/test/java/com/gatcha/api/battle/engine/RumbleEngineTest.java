@@ -0,0 +1,92 @@
+package com.gatcha.api.battle.engine;
+
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RumbleEngineTest {
+
+    private final RumbleEngine rumbleEngine = new RumbleEngine(new BattleEngine(1000));
+
+    private CombatSnapshot snapshot(String id, int hp, int atk) {
+        PlayerMonster monster = new PlayerMonster();
+        monster.setId(id);
+        monster.setLevel(1);
+        monster.setHp(hp);
+        monster.setAtk(atk);
+        monster.setDef(50);
+        monster.setVit(100);
+        monster.setSkills(List.of(new Skill(1, 100, new Skill.Ratio("atk", 20), 2, 0, 5)));
+        return CombatSnapshot.of(monster);
+    }
+
+    @Test
+    void fight_ShouldLeaveOneSurvivor() {
+        // Prepare
+        CombatSnapshot[] participants = {
+                snapshot("m1", 500, 100), snapshot("m2", 100000, 1000), snapshot("m3", 500, 100)};
+        ActionTrace trace = new ActionTrace();
+
+        // Execute
+        RumbleOutcome outcome = rumbleEngine.fight(participants, new SplittableRandom(1), trace);
+
+        // Verify
+        assertEquals(1, outcome.getWinner());
+        int[] hps = {500, 100000, 500};
+        for (int i = 0; i < trace.size(); i++) {
+            assertNotEquals(trace.getAttacker(i), trace.getTarget(i));
+            assertTrue(hps[trace.getAttacker(i)] > 0, "Defeated monsters do not attack");
+            hps[trace.getTarget(i)] = trace.getRemainingHp(i);
+        }
+        assertEquals(0, hps[0]);
+        assertEquals(0, hps[2]);
+    }
+
+    @Test
+    void estimateAttacks_ShouldNotUnderestimateAverageAttacks() {
+        // Prepare: one monster far more resilient than the others does not drag the estimate up
+        List<CombatSnapshot> participants = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            participants.add(snapshot("m" + i, 1000 + i * 100, 100));
+        }
+        participants.add(snapshot("tank", 100000, 1000));
+        CombatSnapshot[] snapshots = participants.toArray(new CombatSnapshot[0]);
+
+        // Execute
+        long estimate = rumbleEngine.estimateAttacks(snapshots);
+        long attacks = 0;
+        for (int seed = 0; seed < 100; seed++) {
+            ActionTrace trace = new ActionTrace();
+            rumbleEngine.fight(snapshots, new SplittableRandom(seed), trace);
+            attacks += trace.size();
+        }
+
+        // Verify
+        assertTrue(estimate < 9 * 100, "Estimate follows the second most resilient monster: " + estimate);
+        assertTrue(attacks / 100.0 <= estimate, "Average " + attacks / 100.0 + " above estimate " + estimate);
+    }
+
+    @Test
+    void fight_ShouldHandleThousandsOfParticipants() {
+        // Prepare
+        List<CombatSnapshot> participants = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            participants.add(snapshot("m" + i, 1000 + i % 500, 100 + i % 50));
+        }
+
+        // Execute
+        RumbleOutcome outcome = rumbleEngine.fight(participants.toArray(new CombatSnapshot[0]),
+                new SplittableRandom(3), null);
+
+        // Verify
+        assertTrue(outcome.getWinner() >= 0 && outcome.getWinner() < 5000);
+        assertTrue(outcome.getRounds() > 0);
+        assertNull(outcome.getTrace());
+    }
+}
@@ -1,28 +1,45 @@
 package com.gatcha.api.battle.service;
 
+import com.gatcha.api.battle.dto.BattleHistoryPage;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.MatchupCache;
 import com.gatcha.api.battle.model.BattleLog;
 import com.gatcha.api.battle.repository.BattleLogRepository;
 import com.gatcha.api.battle.service.impl.BattleServiceImpl;
+import com.gatcha.api.battle.settlement.BattleSettlement;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.model.Skill;
 import com.gatcha.api.monster.service.MonsterService;
 import com.gatcha.api.player.service.PlayerService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -39,7 +56,9 @@ public class BattleServiceTest {
     @Mock
     private PlayerService playerService;
 
-    @InjectMocks
+    @Spy
+    private MatchupCache matchupCache = new MatchupCache(new BattleEngine(1000), 100);
+
     private BattleServiceImpl battleService;
 
     private PlayerMonster monster1;
@@ -49,6 +68,10 @@ public class BattleServiceTest {
 
     @BeforeEach
     void setUp() {
+        BattleSettlement battleSettlement = new BattleSettlement(battleLogRepository, monsterService, playerService,
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class));
+        battleService = new BattleServiceImpl(battleLogRepository, monsterService, battleSettlement, matchupCache, 100);
+
         // Set up test skills
         skills = new ArrayList<>();
         Skill skill1 = new Skill();
@@ -113,7 +136,8 @@ public class BattleServiceTest {
             savedLog.setId("battle1");
             return savedLog;
         });
-        when(monsterService.addExperience(anyString(), anyString(), anyInt())).thenReturn(monster1);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenReturn(true);
 
         // Act
         BattleLog result = battleService.battle("monster1", "monster2", "testuser");
@@ -121,6 +145,7 @@ public class BattleServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("battle1", result.getId());
+        assertEquals("testuser", result.getUsername());
         assertEquals("monster1", result.getMonster1Id());
         assertEquals("monster2", result.getMonster2Id());
         assertNotNull(result.getActions());
@@ -132,7 +157,8 @@ public class BattleServiceTest {
         // Verify that the winning monster receives experience
         // Experience calculation formula: base experience(20) + defeated monster
         // level(2) * 10 = 40
-        verify(monsterService, times(1)).addExperience(eq(result.getWinnerId()), eq("testuser"), anyInt());
+        verify(monsterService, times(1)).grantExperience(eq(result.getWinnerId()), eq("testuser"), anyInt());
+        verify(monsterService, never()).addExperience(anyString(), anyString(), anyInt());
     }
 
     @Test
@@ -145,7 +171,8 @@ public class BattleServiceTest {
             savedLog.setId("battle1");
             return savedLog;
         });
-        when(monsterService.addExperience(anyString(), anyString(), anyInt())).thenReturn(monster1);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenReturn(true);
 
         // Act
         BattleLog result = battleService.battle("monster1", "monster2", "testuser");
@@ -155,7 +182,131 @@ public class BattleServiceTest {
         // Experience calculation formula: base experience(20) + defeated monster
         // level(2) * 10 = 40
         assertEquals(40, experienceGained);
-        verify(monsterService, times(1)).addExperience(eq(result.getWinnerId()), eq("testuser"), eq(40));
+        assertEquals(40, result.getExperienceGained());
+        verify(battleLogRepository, never()).findById(anyString());
+        verify(monsterService, times(1)).grantExperience(eq(result.getWinnerId()), eq("testuser"), eq(40));
+    }
+
+    @Test
+    void battleLoserAlreadyRemoved() {
+        // Arrange: the loser or the winner was removed by a concurrent battle
+        when(monsterService.getMonsterById("monster1", "testuser")).thenReturn(monster1);
+        when(monsterService.getMonsterById("monster2", "testuser")).thenReturn(monster2);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> battleService.battle("monster1", "monster2", "testuser"));
+        verify(monsterService, never()).grantExperience(anyString(), anyString(), anyInt());
+        verify(battleLogRepository, never()).save(any(BattleLog.class));
+    }
+
+    @Test
+    void battleGrantFailureIsUndone() {
+        // Arrange: the winner's document is gone once the loser has been pulled
+        when(monsterService.getMonsterById("monster1", "testuser")).thenReturn(monster1);
+        when(monsterService.getMonsterById("monster2", "testuser")).thenReturn(monster2);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(battleLogRepository.save(any(BattleLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenReturn(false);
+        when(playerService.restoreMonsters(anyString(), anyCollection())).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> battleService.battle("monster1", "monster2", "testuser"));
+
+        // Both monsters were guarded, and the log and the loser's removal are undone
+        ArgumentCaptor<Collection<String>> removedCaptor = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<String>> keptCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(playerService).removeMonstersIfOwned(eq("testuser"), removedCaptor.capture(), keptCaptor.capture());
+        assertEquals(1, removedCaptor.getValue().size());
+        assertEquals(1, keptCaptor.getValue().size());
+        assertNotEquals(removedCaptor.getValue(), keptCaptor.getValue());
+        verify(battleLogRepository, times(1)).deleteAll(anyList());
+        verify(playerService, times(1)).restoreMonsters(eq("testuser"), eq(List.copyOf(removedCaptor.getValue())));
+    }
+
+    @Test
+    void battleGrantFailureRestoresLoserIntoFullCollection() {
+        // Arrange: granting experience throws, and the collection filled up once the loser was pulled
+        when(monsterService.getMonsterById("monster1", "testuser")).thenReturn(monster1);
+        when(monsterService.getMonsterById("monster2", "testuser")).thenReturn(monster2);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(battleLogRepository.save(any(BattleLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RuntimeException failure = new RuntimeException("Write timeout");
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenThrow(failure);
+        lenient().when(playerService.addMonsters(anyString(), anyList())).thenReturn(false);
+        when(playerService.restoreMonsters(anyString(), anyCollection())).thenReturn(true);
+
+        // Act
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> battleService.battle("monster1", "monster2", "testuser"));
+
+        // Assert: the original failure is rethrown once the log is deleted and the loser is
+        // put back without the size guard
+        assertSame(failure, thrown);
+        assertEquals(0, thrown.getSuppressed().length);
+        verify(battleLogRepository, times(1)).deleteAll(anyList());
+        verify(playerService, times(1)).restoreMonsters(eq("testuser"), anyCollection());
+        verify(playerService, never()).addMonsters(anyString(), anyList());
+    }
+
+    @Test
+    void battleCompensationFailureIsAttached() {
+        // Arrange: deleting the log fails too, the loser is still put back
+        when(monsterService.getMonsterById("monster1", "testuser")).thenReturn(monster1);
+        when(monsterService.getMonsterById("monster2", "testuser")).thenReturn(monster2);
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(battleLogRepository.save(any(BattleLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RuntimeException failure = new RuntimeException("Write timeout");
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenThrow(failure);
+        RuntimeException deleteFailure = new RuntimeException("Delete failed");
+        doThrow(deleteFailure).when(battleLogRepository).deleteAll(anyList());
+        when(playerService.restoreMonsters(anyString(), anyCollection())).thenReturn(true);
+
+        // Act
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> battleService.battle("monster1", "monster2", "testuser"));
+
+        // Assert
+        assertSame(failure, thrown);
+        assertSame(deleteFailure, thrown.getSuppressed()[0]);
+        verify(playerService, times(1)).restoreMonsters(eq("testuser"), anyCollection());
+    }
+
+    @Test
+    void battleCompactStorage() {
+        // Arrange
+        ReflectionTestUtils.setField(battleService, "storageMode", "compact");
+        when(monsterService.getMonsterById("monster1", "testuser")).thenReturn(monster1);
+        when(monsterService.getMonsterById("monster2", "testuser")).thenReturn(monster2);
+        // Round-trip what is written through the real converter, the service fills the actions in afterwards
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+                new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Document written = new Document();
+        when(battleLogRepository.save(any(BattleLog.class))).thenAnswer(invocation -> {
+            BattleLog savedLog = (BattleLog) invocation.getArgument(0);
+            savedLog.setId(new ObjectId().toHexString());
+            converter.write(savedLog, written);
+            battleLog = converter.read(BattleLog.class, written);
+            return savedLog;
+        });
+        when(playerService.removeMonstersIfOwned(anyString(), anyCollection(), anyCollection())).thenReturn(true);
+        when(monsterService.grantExperience(anyString(), anyString(), anyInt())).thenReturn(true);
+
+        // Act
+        BattleLog result = battleService.battle("monster1", "monster2", "testuser");
+
+        // Assert: no actions persisted, but the response still has them
+        assertFalse(written.containsKey("actions"));
+        assertEquals(100, battleLog.getMonster1Stats().getHp());
+        assertEquals(15, battleLog.getMonster2Stats().getDef());
+        assertFalse(result.getActions().isEmpty());
+
+        // Replaying the stored log gives the same actions
+        List<BattleLog.BattleAction> actions = result.getActions();
+        when(battleLogRepository.findById(result.getId())).thenReturn(Optional.of(battleLog));
+        BattleLog replayed = battleService.getBattleById(result.getId());
+        assertEquals(actions, replayed.getActions());
     }
 
     @Test
@@ -201,10 +352,85 @@ public class BattleServiceTest {
 
     @Test
     void getExperienceGainedNonExistent() {
+        // Arrange
+        when(battleLogRepository.findById("nonexistent")).thenReturn(Optional.empty());
+
         // Act
         int experienceGained = battleService.getExperienceGained("nonexistent");
 
         // Assert
         assertEquals(0, experienceGained);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getExperienceGainedFromBattleLog() {
+        // Arrange: battle fought on another node, not cached here
+        battleLog.setExperienceGained(40);
+        when(battleLogRepository.findById("battle1")).thenReturn(Optional.of(battleLog));
+
+        // Act
+        int first = battleService.getExperienceGained("battle1");
+        int second = battleService.getExperienceGained("battle1");
+
+        // Assert: read once, then served from the cache
+        assertEquals(40, first);
+        assertEquals(40, second);
+        verify(battleLogRepository, times(1)).findById("battle1");
+    }
+
+    @Test
+    void getBattleHistoryFirstPage() {
+        // Arrange: one more battle than requested means there is a next page
+        BattleLog newest = historyLog("650000000000000000000003", 3000);
+        BattleLog middle = historyLog("650000000000000000000002", 2000);
+        BattleLog oldest = historyLog("650000000000000000000001", 1000);
+        when(battleLogRepository.findByUsername(eq("testuser"), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(newest, middle, oldest)));
+
+        // Act
+        BattleHistoryPage page = battleService.getBattleHistory("testuser", null, 2);
+
+        // Assert
+        assertEquals(Arrays.asList(newest, middle), page.getBattles());
+        assertNotNull(page.getNextCursor());
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(battleLogRepository).findByUsername(eq("testuser"), pageableCaptor.capture());
+        assertEquals(3, pageableCaptor.getValue().getPageSize());
+        verify(battleLogRepository, never()).findAll();
+    }
+
+    @Test
+    void getBattleHistoryNextPage() {
+        // Arrange
+        BattleLog middle = historyLog("650000000000000000000002", 2000);
+        BattleLog oldest = historyLog("650000000000000000000001", 1000);
+        when(battleLogRepository.findByUsername(eq("testuser"), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(historyLog("650000000000000000000003", 3000), middle)));
+        String cursor = battleService.getBattleHistory("testuser", null, 1).getNextCursor();
+        when(battleLogRepository.findByUsernameBefore(eq("testuser"), eq(new Date(3000)),
+                eq(new ObjectId("650000000000000000000003")), any(Pageable.class)))
+                .thenReturn(Arrays.asList(middle, oldest));
+
+        // Act
+        BattleHistoryPage page = battleService.getBattleHistory("testuser", cursor, 2);
+
+        // Assert: last page
+        assertEquals(Arrays.asList(middle, oldest), page.getBattles());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getBattleHistoryInvalidCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> battleService.getBattleHistory("testuser", "not-a-cursor", 20));
+    }
+
+    private BattleLog historyLog(String id, long battleDate) {
+        BattleLog log = new BattleLog();
+        log.setId(id);
+        log.setUsername("testuser");
+        log.setBattleDate(new Date(battleDate));
+        return log;
+    }
+}
@@ -1,22 +1,31 @@
 package com.gatcha.api.battle.service;
 
-import com.gatcha.api.battle.dto.RoyalRumbleResult;
-import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.battle.dto.RoyalRumbleHistoryPage;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.RumbleEngine;
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.battle.model.RoyalRumble;
+import com.gatcha.api.battle.repository.RoyalRumbleRepository;
 import com.gatcha.api.battle.service.impl.RoyalRumbleServiceImpl;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.model.Skill;
 import com.gatcha.api.monster.service.MonsterService;
 import com.gatcha.api.player.service.PlayerService;
+import com.gatcha.api.utils.NameGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.bson.types.ObjectId;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Pageable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,15 +38,11 @@ public class RoyalRumbleServiceTest {
     private MonsterService monsterService;
 
     @Mock
-    private BattleLogRepository battleLogRepository;
-
-    @Mock
-    private MongoTemplate mongoTemplate;
+    private RoyalRumbleRepository royalRumbleRepository;
 
     @Mock
     private PlayerService playerService;
 
-    @InjectMocks
     private RoyalRumbleServiceImpl royalRumbleService;
 
     private List<PlayerMonster> testMonsters;
@@ -45,6 +50,9 @@ public class RoyalRumbleServiceTest {
 
     @BeforeEach
     void setUp() {
+        royalRumbleService = new RoyalRumbleServiceImpl(monsterService, royalRumbleRepository, playerService,
+                new RumbleEngine(new BattleEngine(1000)), 100);
+
         // Set up test skills
         testSkills = new ArrayList<>();
         Skill skill1 = new Skill();
@@ -115,34 +123,18 @@ public class RoyalRumbleServiceTest {
     void startRoyalRumble() {
         // Arrange
         when(monsterService.getMonstersByUsername("testuser")).thenReturn(testMonsters);
-        when(mongoTemplate.save(any(RoyalRumbleResult.class), eq("royalRumbles"))).thenAnswer(invocation -> {
-            RoyalRumbleResult result = invocation.getArgument(0);
-            result.setId("rumble1");
-            // Ensure winner is not null
-            if (result.getWinner() == null) {
-                result.setWinner(testMonsters.get(0));
-            }
-            return result;
-        });
+        when(royalRumbleRepository.insert(any(RoyalRumble.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(monsterService.addExperience(anyString(), anyString(), anyInt())).thenReturn(testMonsters.get(0));
-        // Fix mock for playerService.removeMonster
-        when(playerService.removeMonster(anyString(), anyString())).thenReturn(true);
-
-        // Ensure getMonsterById returns valid monsters
-        when(monsterService.getMonsterById(anyString(), anyString())).thenAnswer(invocation -> {
-            String monsterId = invocation.getArgument(0);
-            return testMonsters.stream()
-                    .filter(m -> m.getId().equals(monsterId))
-                    .findFirst()
-                    .orElse(testMonsters.get(0)); // Default to first monster
-        });
+        // Fix mock for playerService.removeMonsters
+        when(playerService.removeMonsters(anyString(), anyCollection())).thenReturn(true);
 
         // Act
-        RoyalRumbleResult result = royalRumbleService.startRoyalRumble("testuser");
+        RoyalRumble result = royalRumbleService.startRoyalRumble("testuser");
 
         // Assert
         assertNotNull(result);
-        assertNotNull(result.getId());
+        assertTrue(ObjectId.isValid(result.getId()));
+        assertEquals("testuser", result.getUsername());
         assertNotNull(result.getRumbleDate());
         assertNotNull(result.getParticipantIds());
         assertTrue(result.getParticipantIds().size() > 0);
@@ -150,13 +142,50 @@ public class RoyalRumbleServiceTest {
         assertFalse(result.getRounds().isEmpty());
         assertNotNull(result.getWinner());
         assertTrue(result.getExperienceGained() > 0);
+        // The battle log is only rendered on request
+        assertNull(result.getBattleLog());
 
         // Verify calls
-        verify(monsterService, times(2)).getMonstersByUsername("testuser");
-        verify(mongoTemplate, times(1)).save(any(RoyalRumbleResult.class), eq("royalRumbles"));
+        // The roster is read once and the participants are not fetched again
+        verify(monsterService, times(1)).getMonstersByUsername("testuser");
+        verify(monsterService, never()).getMonstersByIds(anyCollection(), anyString());
+        verify(monsterService, never()).getMonsterById(anyString(), anyString());
+        verify(royalRumbleRepository, times(1)).insert(any(RoyalRumble.class));
         verify(monsterService, times(1)).addExperience(anyString(), eq("testuser"), anyInt());
-        // Verify playerService.removeMonster was called
-        verify(playerService, atLeastOnce()).removeMonster(eq("testuser"), anyString());
+        // Verify all losers were removed in a single call
+        verify(playerService, times(1)).removeMonsters(eq("testuser"), argThat(ids -> ids.size() == 2));
+        verify(playerService, never()).removeMonster(anyString(), anyString());
+    }
+
+    @Test
+    void startRoyalRumbleWithMonsterIds() {
+        // Arrange
+        List<String> monsterIds = List.of("monster1", "monster2", "monster3");
+        when(monsterService.getMonstersByIds(monsterIds, "testuser")).thenReturn(testMonsters);
+        when(monsterService.addExperience(anyString(), anyString(), anyInt())).thenReturn(testMonsters.get(0));
+        when(playerService.removeMonsters(anyString(), anyCollection())).thenReturn(true);
+
+        // Act
+        RoyalRumble result = royalRumbleService.startRoyalRumble("testuser", monsterIds);
+
+        // Assert
+        assertEquals(monsterIds, result.getParticipantIds());
+        assertNotNull(result.getWinner());
+        verify(monsterService, times(1)).getMonstersByIds(monsterIds, "testuser");
+        verify(monsterService, never()).getMonstersByUsername(anyString());
+        verify(monsterService, never()).getMonsterById(anyString(), anyString());
+    }
+
+    @Test
+    void startRoyalRumbleLosersAlreadyRemoved() {
+        // Arrange: a concurrent battle already took every loser
+        when(monsterService.getMonstersByUsername("testuser")).thenReturn(testMonsters);
+        when(playerService.removeMonsters(anyString(), anyCollection())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> royalRumbleService.startRoyalRumble("testuser"));
+        verify(monsterService, never()).addExperience(anyString(), anyString(), anyInt());
+        verify(royalRumbleRepository, never()).insert(any(RoyalRumble.class));
     }
 
     @Test
@@ -171,19 +200,168 @@ public class RoyalRumbleServiceTest {
 
         // Verify calls
         verify(monsterService, times(1)).getMonstersByUsername("testuser");
-        verify(mongoTemplate, never()).save(any(), anyString());
+        verify(royalRumbleRepository, never()).insert(any(RoyalRumble.class));
         verify(monsterService, never()).addExperience(anyString(), anyString(), anyInt());
     }
 
     @Test
-    void getExperienceGained() {
+    void getExperienceGainedNotFound() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> royalRumbleService.getExperienceGained("testuser", "rumble1"));
+    }
+
+    @Test
+    void getExperienceGainedOfAnotherUser() {
+        // Arrange: the owner's read fills the cache, another user must not be served from it
+        RoyalRumble stored = historyRumble("650000000000000000000001", 1000);
+        stored.setExperienceGained(80);
+        when(royalRumbleRepository.findByIdAndUsername(stored.getId(), "testuser")).thenReturn(Optional.of(stored));
+        royalRumbleService.getExperienceGained("testuser", stored.getId());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> royalRumbleService.getExperienceGained("otheruser", stored.getId()));
+    }
+
+    @Test
+    void getExperienceGainedFromStoredRumble() {
         // Arrange
-        String rumbleId = "rumble1";
+        RoyalRumble stored = historyRumble("650000000000000000000001", 1000);
+        stored.setExperienceGained(80);
+        when(royalRumbleRepository.findByIdAndUsername(stored.getId(), "testuser")).thenReturn(Optional.of(stored));
 
         // Act
-        int experienceGained = royalRumbleService.getExperienceGained(rumbleId);
+        int first = royalRumbleService.getExperienceGained("testuser", stored.getId());
+        int second = royalRumbleService.getExperienceGained("testuser", stored.getId());
+
+        // Assert: the second read is served from memory
+        assertEquals(80, first);
+        assertEquals(80, second);
+        verify(royalRumbleRepository, times(1)).findByIdAndUsername(stored.getId(), "testuser");
+    }
+
+    @Test
+    void getRumbleHistoryFirstPage() {
+        // Arrange: one more rumble than requested means there is a next page
+        RoyalRumble newest = historyRumble("650000000000000000000003", 3000);
+        RoyalRumble middle = historyRumble("650000000000000000000002", 2000);
+        RoyalRumble oldest = historyRumble("650000000000000000000001", 1000);
+        when(royalRumbleRepository.findSummariesByUsername(eq("testuser"), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(newest, middle, oldest)));
+
+        // Act
+        RoyalRumbleHistoryPage page = royalRumbleService.getRumbleHistory("testuser", null, 2);
 
         // Assert
-        assertEquals(0, experienceGained);
+        assertEquals(Arrays.asList(newest, middle), page.getRumbles());
+        assertNotNull(page.getNextCursor());
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(royalRumbleRepository).findSummariesByUsername(eq("testuser"), pageableCaptor.capture());
+        assertEquals(3, pageableCaptor.getValue().getPageSize());
+        verify(royalRumbleRepository, never()).findAll();
+    }
+
+    @Test
+    void getRumbleHistoryNextPage() {
+        // Arrange
+        RoyalRumble middle = historyRumble("650000000000000000000002", 2000);
+        RoyalRumble oldest = historyRumble("650000000000000000000001", 1000);
+        when(royalRumbleRepository.findSummariesByUsername(eq("testuser"), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(historyRumble("650000000000000000000003", 3000), middle)));
+        String cursor = royalRumbleService.getRumbleHistory("testuser", null, 1).getNextCursor();
+        when(royalRumbleRepository.findSummariesByUsernameBefore(eq("testuser"), eq(new Date(3000)),
+                eq(new ObjectId("650000000000000000000003")), any(Pageable.class)))
+                .thenReturn(Arrays.asList(middle, oldest));
+
+        // Act
+        RoyalRumbleHistoryPage page = royalRumbleService.getRumbleHistory("testuser", cursor, 2);
+
+        // Assert: last page
+        assertEquals(Arrays.asList(middle, oldest), page.getRumbles());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void renderBattleLog() {
+        // Arrange
+        List<String> monsterIds = List.of("monster1", "monster2", "monster3");
+        testMonsters.get(0).setName("Blaze");
+        testMonsters.get(1).setName("Torrent");
+        testMonsters.get(2).setName("Gale");
+        when(monsterService.getMonstersByIds(monsterIds, "testuser")).thenReturn(testMonsters);
+        when(monsterService.addExperience(anyString(), anyString(), anyInt())).thenReturn(testMonsters.get(0));
+        when(playerService.removeMonsters(anyString(), anyCollection())).thenReturn(true);
+        RoyalRumble result = royalRumbleService.startRoyalRumble("testuser", monsterIds);
+
+        // Act
+        List<String> battleLog = royalRumbleService.renderBattleLog(result);
+
+        // Assert
+        int actionCount = result.getRounds().stream().mapToInt(round -> round.getActions().size()).sum();
+        // Two lines per action, one per defeat, two per round and the victor line
+        assertEquals(2 * actionCount + 2 + 2 * result.getRounds().size() + 1, battleLog.size());
+        assertEquals("Round 1 begins, remaining monsters: 3", battleLog.get(0));
+        // The names stored with the rumble are used
+        assertEquals(List.of("Blaze", "Torrent", "Gale"), result.getParticipantNames());
+        assertEquals(result.getWinner().getName() + " is the final victor!", battleLog.get(battleLog.size() - 1));
+    }
+
+    @Test
+    void renderBattleLogWithoutStoredNames() {
+        // Arrange: a rumble stored before participant names were kept
+        RoyalRumble stored = new RoyalRumble();
+        stored.setParticipantIds(List.of("monster1", "monster2"));
+        stored.setParticipantElements(List.of("fire", "water"));
+        stored.setWinner(testMonsters.get(0));
+        stored.setRounds(List.of(new RoyalRumble.RumbleRound(1,
+                List.of(new BattleLog.BattleAction("monster1", 0, 90, "monster2", 0)), List.of("monster1"))));
+
+        // Act
+        List<String> battleLog = royalRumbleService.renderBattleLog(stored);
+
+        // Assert: names are regenerated from the IDs
+        String winnerName = NameGenerator.generateName("monster1", "fire");
+        String loserName = NameGenerator.generateName("monster2", "water");
+        assertEquals(loserName + " has been defeated!", battleLog.get(3));
+        assertEquals(winnerName + " is the final victor!", battleLog.get(battleLog.size() - 1));
+    }
+
+    @Test
+    void getBattleLogKeepsStoredLog() {
+        // Arrange
+        RoyalRumble stored = new RoyalRumble();
+        stored.setId("rumble1");
+        stored.setBattleLog(List.of("Stored line"));
+        when(royalRumbleRepository.findByIdAndUsername("rumble1", "testuser")).thenReturn(Optional.of(stored));
+
+        // Act
+        List<String> battleLog = royalRumbleService.getBattleLog("testuser", "rumble1");
+
+        // Assert
+        assertEquals(List.of("Stored line"), battleLog);
+    }
+
+    @Test
+    void getBattleLogNotFound() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> royalRumbleService.getBattleLog("testuser", "missing"));
+    }
+
+    @Test
+    void getBattleLogOfAnotherUser() {
+        // Arrange: the rumble exists but is not found for this user
+        when(royalRumbleRepository.findByIdAndUsername("rumble1", "otheruser")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> royalRumbleService.getBattleLog("otheruser", "rumble1"));
+        verify(royalRumbleRepository, never()).findById(anyString());
+    }
+
+    private RoyalRumble historyRumble(String id, long rumbleDate) {
+        RoyalRumble rumble = new RoyalRumble();
+        rumble.setId(id);
+        rumble.setUsername("testuser");
+        rumble.setRumbleDate(new Date(rumbleDate));
+        return rumble;
     }
-}
\ No newline at end of file
+}
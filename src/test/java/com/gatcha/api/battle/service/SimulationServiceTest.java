@@ -0,0 +1,229 @@
+package com.gatcha.api.battle.service;
+
+import com.gatcha.api.battle.dto.SimulationRequest;
+import com.gatcha.api.battle.dto.SimulationResult;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.RumbleEngine;
+import com.gatcha.api.battle.service.impl.SimulationServiceImpl;
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import com.gatcha.api.monster.service.MonsterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SimulationServiceTest {
+
+    @Mock
+    private MonsterService monsterService;
+
+    @Mock
+    private MonsterTemplateCatalog monsterTemplateCatalog;
+
+    private ForkJoinPool simulationPool;
+    private SimulationServiceImpl simulationService;
+
+    @BeforeEach
+    void setUp() {
+        List<MonsterTemplate> templates = List.of(
+                template(1, 1200, 150, 80, 90),
+                template(2, 1000, 180, 60, 120),
+                template(3, 1500, 120, 100, 60));
+        when(monsterTemplateCatalog.getTemplates()).thenReturn(templates);
+        when(monsterTemplateCatalog.findById(anyInt()))
+                .thenAnswer(invocation -> Optional.of(templates.get((Integer) invocation.getArgument(0) - 1)));
+        when(monsterService.buildMonster(anyInt(), anyString()))
+                .thenAnswer(invocation -> monster(templates.get((Integer) invocation.getArgument(0) - 1)));
+
+        simulationPool = new ForkJoinPool(4);
+        simulationService = new SimulationServiceImpl(monsterService, monsterTemplateCatalog,
+                new BattleEngine(1000), new RumbleEngine(new BattleEngine(1000)), simulationPool, 10000, 256, 100000,
+                100000, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulationPool.shutdownNow();
+    }
+
+    private MonsterTemplate template(int id, int hp, int atk, int def, int vit) {
+        List<Skill> skills = new ArrayList<>();
+        for (int num = 1; num <= 3; num++) {
+            skills.add(new Skill(num, 80 + num * 40, new Skill.Ratio("atk", 10 * num), num, 0, 5));
+        }
+        return new MonsterTemplate(id, "fire", hp, atk, def, vit, skills, 0.3);
+    }
+
+    private PlayerMonster monster(MonsterTemplate template) {
+        PlayerMonster monster = new PlayerMonster();
+        monster.setTemplateId(String.valueOf(template.getId()));
+        monster.setLevel(1);
+        monster.setHp(template.getHp());
+        monster.setAtk(template.getAtk());
+        monster.setDef(template.getDef());
+        monster.setVit(template.getVit());
+        monster.setSkillPoints(3);
+        List<Skill> skills = new ArrayList<>();
+        for (Skill skill : template.getSkills()) {
+            skills.add(new Skill(skill.getNum(), skill.getDmg(),
+                    new Skill.Ratio(skill.getRatio().getStat(), skill.getRatio().getPercent()),
+                    skill.getCooldown(), 0, skill.getLvlMax()));
+        }
+        monster.setSkills(skills);
+        return monster;
+    }
+
+    @Test
+    void simulate_BattleWithFixedSkills_ShouldRunOnce() throws Exception {
+        // Arrange
+        SimulationRequest request = new SimulationRequest();
+        request.setMonsters(List.of(
+                new SimulationRequest.SimulatedMonster(1, 1, List.of(1, 1, 1)),
+                new SimulationRequest.SimulatedMonster(2, 3, List.of(0, 2, 2)),
+                new SimulationRequest.SimulatedMonster(3, 1, List.of())));
+        request.setIterations(500);
+
+        // Act
+        SimulationResult result = simulationService.simulate(request).get();
+
+        // Assert
+        assertEquals(1, result.getIterations());
+        assertEquals(3, result.getFights());
+        for (int i = 0; i < 3; i++) {
+            assertNull(result.getMatchupWinRates().get(i).get(i));
+            for (int j = i + 1; j < 3; j++) {
+                assertEquals(1.0, result.getMatchupWinRates().get(i).get(j) + result.getMatchupWinRates().get(j).get(i));
+            }
+        }
+        assertEquals(3.0, result.getWinRates().stream().mapToDouble(Double::doubleValue).sum() * 2, 1e-9);
+        assertTrue(result.getAverageTurns() > 0);
+    }
+
+    @Test
+    void simulate_BattleWithSampledSkills_ShouldCoverAllTemplates() throws Exception {
+        // Arrange
+        SimulationRequest request = new SimulationRequest();
+        request.setLevel(5);
+        request.setIterations(200);
+        request.setSeed(42L);
+
+        // Act
+        SimulationResult result = simulationService.simulate(request).get();
+
+        // Assert
+        assertEquals(3, result.getMonsters().size());
+        assertEquals(200, result.getIterations());
+        assertEquals(600, result.getFights());
+        // Each monster's 64 samples are built once for the run, not once per iteration
+        verify(monsterService, times(3 * 64)).buildMonster(anyInt(), anyString());
+    }
+
+    @Test
+    void simulate_RumbleWithSeed_ShouldBeReproducible() throws Exception {
+        // Arrange
+        SimulationRequest request = new SimulationRequest();
+        request.setMode("rumble");
+        request.setIterations(1000);
+        request.setSeed(7L);
+
+        // Act
+        SimulationResult first = simulationService.simulate(request).get();
+        SimulationResult second = simulationService.simulate(request).get();
+
+        // Assert
+        assertEquals(1000, first.getFights());
+        assertEquals(first.getWinRates(), second.getWinRates());
+        assertEquals(1.0, first.getWinRates().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+        assertNull(first.getMatchupWinRates());
+        assertTrue(first.getAverageRounds() > 0);
+    }
+
+    @Test
+    void simulate_InvalidRequest_ShouldThrowException() {
+        // Arrange
+        SimulationRequest unknownMode = new SimulationRequest();
+        unknownMode.setMode("tournament");
+        SimulationRequest unreachableSkills = new SimulationRequest();
+        unreachableSkills.setMonsters(List.of(
+                new SimulationRequest.SimulatedMonster(1, 1, List.of(4)),
+                new SimulationRequest.SimulatedMonster(2, 1, null)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> simulationService.simulate(unknownMode));
+        assertThrows(IllegalArgumentException.class, () -> simulationService.simulate(unreachableSkills));
+    }
+
+    @Test
+    void simulate_TooManyFights_ShouldThrowException() {
+        // Arrange: 200 iterations of 64 monsters is 403200 fights
+        SimulationRequest request = new SimulationRequest();
+        List<SimulationRequest.SimulatedMonster> monsters = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            monsters.add(new SimulationRequest.SimulatedMonster(1 + i % 3, 1, null));
+        }
+        request.setMonsters(monsters);
+        request.setIterations(200);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> simulationService.simulate(request));
+        verify(monsterService, never()).buildMonster(anyInt(), anyString());
+    }
+
+    @Test
+    void simulate_TooManyRumbleAttacks_ShouldThrowException() throws Exception {
+        // Arrange: about 20 attacks per rumble between the three templates
+        SimulationRequest affordable = new SimulationRequest();
+        affordable.setMode("rumble");
+        affordable.setIterations(1000);
+        SimulationRequest tooLong = new SimulationRequest();
+        tooLong.setMode("rumble");
+        tooLong.setIterations(10000);
+
+        // Act & Assert
+        assertEquals(1000, simulationService.simulate(affordable).get().getFights());
+        assertThrows(IllegalArgumentException.class, () -> simulationService.simulate(tooLong));
+    }
+
+    @Test
+    void simulate_ConcurrencyLimitReached_ShouldReject() throws Exception {
+        // Arrange: hold the only run slot until released, samples built on the pool wait for it
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+                release.await();
+            }
+            return monster(monsterTemplateCatalog.getTemplates().get(0));
+        }).when(monsterService).buildMonster(eq(1), anyString());
+        SimulationRequest request = new SimulationRequest();
+        request.setIterations(2);
+        CompletableFuture<SimulationResult> running = simulationService.simulate(request);
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> simulationService.simulate(request));
+        release.countDown();
+        running.get();
+        assertEquals(6, simulationService.simulate(request).get().getFights());
+    }
+}
@@ -0,0 +1,175 @@
+package com.gatcha.api.battle.service;
+
+import com.gatcha.api.battle.dto.TournamentResult;
+import com.gatcha.api.battle.engine.BattleEngine;
+import com.gatcha.api.battle.engine.MatchupCache;
+import com.gatcha.api.battle.model.BattleLog;
+import com.gatcha.api.battle.repository.BattleLogRepository;
+import com.gatcha.api.battle.service.impl.BattleServiceImpl;
+import com.gatcha.api.battle.service.impl.TournamentServiceImpl;
+import com.gatcha.api.battle.settlement.BattleSettlement;
+import com.gatcha.api.monster.model.PlayerMonster;
+import com.gatcha.api.monster.model.Skill;
+import com.gatcha.api.monster.service.MonsterService;
+import com.gatcha.api.player.service.PlayerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TournamentServiceTest {
+
+    @Mock
+    private BattleLogRepository battleLogRepository;
+
+    @Mock
+    private MonsterService monsterService;
+
+    @Mock
+    private PlayerService playerService;
+
+    private ForkJoinPool tournamentPool;
+
+    private TournamentServiceImpl tournamentService;
+
+    // Ordered from the strongest to the weakest, so the top seed always wins
+    private List<PlayerMonster> monsters;
+
+    @BeforeEach
+    void setUp() {
+        BattleSettlement battleSettlement = new BattleSettlement(battleLogRepository, monsterService, playerService,
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class));
+        BattleServiceImpl battleService = new BattleServiceImpl(battleLogRepository, monsterService,
+                battleSettlement, new MatchupCache(new BattleEngine(1000), 100), 100);
+        tournamentPool = new ForkJoinPool(4);
+        tournamentService = new TournamentServiceImpl(monsterService, battleService, battleSettlement,
+                tournamentPool, 256);
+
+        monsters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Skill skill = new Skill();
+            skill.setNum(1);
+            skill.setDmg(10);
+            skill.setRatio(new Skill.Ratio("atk", 1.5));
+            skill.setCooldown(2);
+            skill.setLvlMax(5);
+
+            PlayerMonster monster = new PlayerMonster();
+            monster.setId("monster" + i);
+            monster.setUsername("testuser");
+            monster.setElement("fire");
+            monster.setLevel(1);
+            monster.setHp(1000 - 50 * i);
+            monster.setAtk(100 - 5 * i);
+            monster.setDef(50 - 5 * i);
+            monster.setVit(20 - i);
+            monster.setSkills(new ArrayList<>(List.of(skill)));
+            monsters.add(monster);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        tournamentPool.shutdownNow();
+    }
+
+    @Test
+    void startTournament() {
+        // Arrange
+        List<String> monsterIds = monsters.stream().map(PlayerMonster::getId).collect(Collectors.toList());
+        when(monsterService.getMonstersByIds(monsterIds, "testuser")).thenReturn(monsters);
+        when(playerService.removeMonstersIfOwned(eq("testuser"), anyCollection(), anyCollection())).thenReturn(true);
+        when(monsterService.grantExperience(anyList(), eq("testuser"))).thenReturn(7);
+        when(battleLogRepository.insert(anyList())).thenAnswer(invocation -> {
+            List<BattleLog> battleLogs = invocation.getArgument(0);
+            for (int i = 0; i < battleLogs.size(); i++) {
+                battleLogs.get(i).setId("battle" + i);
+            }
+            return battleLogs;
+        });
+        when(monsterService.getMonsterById("monster0", "testuser")).thenReturn(monsters.get(0));
+
+        // Act
+        TournamentResult result = tournamentService.startTournament("testuser", monsterIds);
+
+        // Assert: seeds 1 v 8, 4 v 5, 2 v 7 and 3 v 6 open, the top seed wins every match
+        assertEquals("monster0", result.getChampion().getId());
+        assertEquals(3, result.getRounds().size());
+        List<TournamentResult.TournamentMatch> firstRound = result.getRounds().get(0).getMatches();
+        assertEquals(List.of("monster7", "monster4", "monster6", "monster5"),
+                firstRound.stream().map(TournamentResult.TournamentMatch::getMonster2Id).collect(Collectors.toList()));
+        List<TournamentResult.TournamentMatch> secondRound = result.getRounds().get(1).getMatches();
+        assertEquals("monster0", secondRound.get(0).getMonster1Id());
+        assertEquals("monster3", secondRound.get(0).getMonster2Id());
+        assertEquals("monster1", secondRound.get(1).getMonster1Id());
+        assertEquals("monster2", secondRound.get(1).getMonster2Id());
+        assertEquals("battle6", result.getRounds().get(2).getMatches().get(0).getBattleId());
+        // Three wins against level 1 monsters
+        assertEquals(90, result.getExperienceGained());
+
+        // Verify: the bracket is settled with one write of each kind
+        ArgumentCaptor<Collection<String>> loserCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(playerService, times(1)).removeMonstersIfOwned(eq("testuser"), loserCaptor.capture(), anyCollection());
+        assertEquals(7, loserCaptor.getValue().size());
+        assertFalse(loserCaptor.getValue().contains("monster0"));
+        ArgumentCaptor<List<Pair<String, Integer>>> grantCaptor = ArgumentCaptor.forClass(List.class);
+        verify(monsterService, times(1)).grantExperience(grantCaptor.capture(), eq("testuser"));
+        assertEquals(7, grantCaptor.getValue().size());
+        verify(battleLogRepository, times(1)).insert(anyList());
+        verify(playerService, never()).removeMonster(anyString(), anyString());
+        verify(battleLogRepository, never()).save(any(BattleLog.class));
+    }
+
+    @Test
+    void startTournamentNotPowerOfTwo() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> tournamentService.startTournament("testuser", List.of("monster0", "monster1", "monster2")));
+        verify(monsterService, never()).getMonstersByIds(anyCollection(), anyString());
+    }
+
+    @Test
+    void startTournamentDuplicateMonsters() {
+        // Arrange: duplicates only come back once
+        List<String> monsterIds = List.of("monster0", "monster0");
+        when(monsterService.getMonstersByIds(monsterIds, "testuser")).thenReturn(monsters.subList(0, 1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tournamentService.startTournament("testuser", monsterIds));
+        verify(playerService, never()).removeMonstersIfOwned(anyString(), anyCollection(), anyCollection());
+    }
+
+    @Test
+    void startTournamentLoserAlreadyRemoved() {
+        // Arrange: a concurrent battle took one of the monsters
+        List<String> monsterIds = List.of("monster0", "monster1");
+        when(monsterService.getMonstersByIds(monsterIds, "testuser")).thenReturn(monsters.subList(0, 2));
+        when(playerService.removeMonstersIfOwned(eq("testuser"), anyCollection(), anyCollection())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> tournamentService.startTournament("testuser", monsterIds));
+        verify(monsterService, never()).grantExperience(anyList(), anyString());
+        verify(battleLogRepository, never()).insert(anyList());
+    }
+}
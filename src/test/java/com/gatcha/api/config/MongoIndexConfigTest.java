@@ -0,0 +1,57 @@
+package com.gatcha.api.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoIndexConfigTest {
+
+    private final List<IndexDefinition> definitions = List.of(
+            new Index().on("token", Sort.Direction.ASC).unique(),
+            new Index().on("expirationDate", Sort.Direction.ASC).expire(3600),
+            new CompoundIndexDefinition(new Document("username", 1).append("battleDate", -1))
+                    .named("username_battleDate"));
+
+    private Document index(String name, Document key) {
+        return new Document("v", 2).append("key", key).append("name", name);
+    }
+
+    @Test
+    void matchingIndexesPass() {
+        // Prepare: the server returns directions as doubles for some indexes
+        List<Document> existing = List.of(
+                index("token_1", new Document("token", 1)).append("unique", true),
+                index("expirationDate_1", new Document("expirationDate", 1)).append("expireAfterSeconds", 3600L),
+                index("username_battleDate", new Document("username", 1.0).append("battleDate", -1.0)));
+
+        // Execute & Verify
+        assertDoesNotThrow(() -> MongoIndexConfig.verifyIndexes("test", existing, definitions));
+    }
+
+    @Test
+    void driftedIndexesFail() {
+        // Prepare
+        Document token = index("token_1", new Document("token", 1)).append("unique", true);
+        Document ttl = index("expirationDate_1", new Document("expirationDate", 1)).append("expireAfterSeconds", 3600);
+        Document compound = index("username_battleDate", new Document("username", 1).append("battleDate", -1));
+
+        // Execute & Verify: not unique, wrong TTL, wrong direction under the declared name
+        assertThrows(IllegalStateException.class, () -> MongoIndexConfig.verifyIndexes("test",
+                List.of(index("token_1", new Document("token", 1)), ttl, compound), definitions));
+        assertThrows(IllegalStateException.class, () -> MongoIndexConfig.verifyIndexes("test",
+                List.of(token, index("expirationDate_1", new Document("expirationDate", 1))
+                        .append("expireAfterSeconds", 60), compound), definitions));
+        assertThrows(IllegalStateException.class, () -> MongoIndexConfig.verifyIndexes("test",
+                List.of(token, ttl, index("username_battleDate", new Document("username", 1).append("battleDate", 1))),
+                definitions));
+        assertThrows(IllegalStateException.class, () -> MongoIndexConfig.verifyIndexes("test",
+                List.of(token, compound), definitions));
+    }
+}
@@ -0,0 +1,85 @@
+package com.gatcha.api.monster.catalog;
+
+import com.gatcha.api.monster.model.MonsterTemplate;
+import com.gatcha.api.monster.repository.MonsterTemplateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MonsterTemplateCatalogTest {
+
+    @Mock
+    private MonsterTemplateRepository monsterTemplateRepository;
+
+    @InjectMocks
+    private MonsterTemplateCatalog monsterTemplateCatalog;
+
+    private MonsterTemplate template(int id, double lootRate) {
+        MonsterTemplate template = new MonsterTemplate();
+        template.setId(id);
+        template.setLootRate(lootRate);
+        return template;
+    }
+
+    @Test
+    void aliasTable_ShouldFollowWeights() {
+        // Prepare
+        AliasTable aliasTable = new AliasTable(new double[]{0.1, 0.6, 0.3, 0.0});
+        Random random = new Random(42);
+        int[] counts = new int[aliasTable.size()];
+        int draws = 100_000;
+
+        // Execute
+        for (int i = 0; i < draws; i++) {
+            counts[aliasTable.sample(random)]++;
+        }
+
+        // Verify
+        assertEquals(0.1, counts[0] / (double) draws, 0.01);
+        assertEquals(0.6, counts[1] / (double) draws, 0.01);
+        assertEquals(0.3, counts[2] / (double) draws, 0.01);
+        assertEquals(0, counts[3]);
+    }
+
+    @Test
+    void aliasTable_ShouldRejectInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0.5, -0.1}));
+    }
+
+    @Test
+    void catalog_ShouldLoadTemplatesOnce() {
+        // Prepare
+        when(monsterTemplateRepository.findAll()).thenReturn(Arrays.asList(template(1, 0.3), template(2, 0.7)));
+
+        // Execute
+        MonsterTemplate drawn = monsterTemplateCatalog.draw();
+        monsterTemplateCatalog.draw();
+
+        // Verify
+        assertNotNull(drawn);
+        assertTrue(monsterTemplateCatalog.findById(2).isPresent());
+        assertFalse(monsterTemplateCatalog.findById(3).isPresent());
+        verify(monsterTemplateRepository, times(1)).findAll();
+    }
+
+    @Test
+    void catalog_ShouldThrowExceptionWhenNoTemplates() {
+        // Prepare
+        when(monsterTemplateRepository.findAll()).thenReturn(Collections.emptyList());
+
+        // Execute & Verify
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> monsterTemplateCatalog.draw());
+        assertEquals("No monster templates available", exception.getMessage());
+    }
+}
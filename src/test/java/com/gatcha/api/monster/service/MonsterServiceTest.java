@@ -1,17 +1,35 @@
 package com.gatcha.api.monster.service;
 
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
 import com.gatcha.api.monster.model.MonsterTemplate;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.model.Skill;
-import com.gatcha.api.monster.repository.MonsterTemplateRepository;
 import com.gatcha.api.monster.repository.PlayerMonsterRepository;
 import com.gatcha.api.monster.service.impl.MonsterServiceImpl;
+import com.gatcha.api.utils.NameGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -20,6 +38,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +50,10 @@ public class MonsterServiceTest {
     private PlayerMonsterRepository playerMonsterRepository;
 
     @Mock
-    private MonsterTemplateRepository monsterTemplateRepository;
+    private MonsterTemplateCatalog monsterTemplateCatalog;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     @InjectMocks
     private MonsterServiceImpl monsterService;
@@ -134,28 +158,143 @@ public class MonsterServiceTest {
         verify(playerMonsterRepository, times(1)).findByIdAndUsername("nonexistent", "testuser");
     }
 
+    @Test
+    void getMonstersByIds() {
+        // Prepare
+        PlayerMonster other = new PlayerMonster();
+        other.setId("monster2");
+        when(playerMonsterRepository.findAllByIdInAndUsername(any(), eq("testuser")))
+                .thenReturn(Arrays.asList(other, testMonster));
+
+        // Execute
+        List<PlayerMonster> result = monsterService.getMonstersByIds(
+                Arrays.asList("monster1", "monster2", "monster1"), "testuser");
+
+        // Verify: one query, request order, no duplicates
+        assertEquals(Arrays.asList(testMonster, other), result);
+        verify(playerMonsterRepository, times(1)).findAllByIdInAndUsername(any(), eq("testuser"));
+        verify(playerMonsterRepository, never()).findByIdAndUsername(anyString(), anyString());
+    }
+
+    @Test
+    void getMonstersByIdsNotOwned() {
+        // Prepare
+        when(playerMonsterRepository.findAllByIdInAndUsername(any(), eq("testuser")))
+                .thenReturn(Arrays.asList(testMonster));
+
+        // Execute & Verify
+        assertThrows(IllegalArgumentException.class,
+                () -> monsterService.getMonstersByIds(Arrays.asList("monster1", "monster9"), "testuser"));
+    }
+
     @Test
     void addExperience() {
         // Prepare
         when(playerMonsterRepository.findByIdAndUsername("monster1", "testuser")).thenReturn(Optional.of(testMonster));
-        when(playerMonsterRepository.save(any(PlayerMonster.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.updateFirst(any(Query.class), updateCaptor.capture(), eq(PlayerMonster.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Execute
         PlayerMonster result = monsterService.addExperience("monster1", "testuser", 50);
 
-        // Verify
+        // Verify: only the experience delta is sent, never the whole document
         assertNotNull(result);
         assertEquals(50, result.getExperience());
-        verify(playerMonsterRepository, times(1)).save(any(PlayerMonster.class));
+        assertEquals(1L, result.getVersion());
+        Document updateObject = updateCaptor.getValue().getUpdateObject();
+        assertEquals(new Document("experience", 50).append("version", 1), updateObject.get("$inc"));
+        assertFalse(updateObject.containsKey("$set"));
+        verify(playerMonsterRepository, never()).save(any(PlayerMonster.class));
+    }
+
+    @Test
+    void grantExperience() {
+        // Prepare
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.updateFirst(any(Query.class), updateCaptor.capture(), eq(PlayerMonster.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        boolean result = monsterService.grantExperience("monster1", "testuser", 50);
+
+        // Verify: a single pipeline update, the monster is never read
+        assertTrue(result);
+        List<Document> pipeline = ((AggregationUpdate) updateCaptor.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("$set", new Document("experience",
+                new Document("$add", Arrays.asList("$experience", 50)))), pipeline.get(0));
+        Document levelUp = (Document) pipeline.get(1).get("$set");
+        assertTrue(levelUp.keySet().containsAll(List.of("level", "hp", "atk", "def", "vit", "skillPoints", "version")));
+        verify(playerMonsterRepository, never()).findByIdAndUsername(anyString(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void grantExperienceBatch() {
+        // Prepare
+        when(mongoTemplate.execute(eq(PlayerMonster.class), any(CollectionCallback.class)))
+                .thenAnswer(invocation -> {
+                    MongoCollection<Document> collection = mock(MongoCollection.class);
+                    when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                            .thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+                    CollectionCallback<BulkWriteResult> callback = invocation.getArgument(1);
+                    BulkWriteResult result = callback.doInCollection(collection);
+
+                    // Verify: one ordered bulk write of pipeline updates
+                    ArgumentCaptor<List<UpdateOneModel<Document>>> updatesCaptor = ArgumentCaptor.forClass(List.class);
+                    ArgumentCaptor<BulkWriteOptions> optionsCaptor = ArgumentCaptor.forClass(BulkWriteOptions.class);
+                    verify(collection).bulkWrite(updatesCaptor.capture(), optionsCaptor.capture());
+                    assertTrue(optionsCaptor.getValue().isOrdered());
+                    assertEquals(2, updatesCaptor.getValue().size());
+                    assertEquals(2, updatesCaptor.getValue().get(0).getUpdatePipeline().size());
+                    return result;
+                });
+
+        // Execute
+        int granted = monsterService.grantExperience(
+                List.of(Pair.of("monster1", 30), Pair.of("monster1", 40)), "testuser");
+
+        // Verify
+        assertEquals(2, granted);
+        verify(playerMonsterRepository, never()).findByIdAndUsername(anyString(), anyString());
+    }
+
+    @Test
+    void addExperienceRetriesOnConcurrentModification() {
+        // Prepare: first write loses the race against another battle
+        when(playerMonsterRepository.findByIdAndUsername("monster1", "testuser")).thenReturn(Optional.of(testMonster));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PlayerMonster.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        monsterService.addExperience("monster1", "testuser", 10);
+
+        // Verify
+        verify(playerMonsterRepository, times(2)).findByIdAndUsername("monster1", "testuser");
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(PlayerMonster.class));
+    }
+
+    @Test
+    void addExperienceGivesUpAfterRetries() {
+        // Prepare
+        when(playerMonsterRepository.findByIdAndUsername("monster1", "testuser")).thenReturn(Optional.of(testMonster));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PlayerMonster.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Execute & Verify
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> monsterService.addExperience("monster1", "testuser", 10));
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(Update.class), eq(PlayerMonster.class));
     }
 
     @Test
     void upgradeSkill() {
         // Prepare
         when(playerMonsterRepository.findByIdAndUsername("monster1", "testuser")).thenReturn(Optional.of(testMonster));
-        when(playerMonsterRepository.save(any(PlayerMonster.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.updateFirst(any(Query.class), updateCaptor.capture(), eq(PlayerMonster.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Record skill state before upgrade
         int originalDmg = testMonster.getSkills().get(1).getDmg();
@@ -182,25 +321,30 @@ public class MonsterServiceTest {
             assertEquals(originalCooldown, result.getSkills().get(1).getCooldown());
         }
 
-        verify(playerMonsterRepository, times(1)).save(any(PlayerMonster.class));
+        // Verify only the upgraded skill's fields are written
+        Document set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(1, set.get("skills.1.level"));
+        assertEquals(result.getSkills().get(1).getDmg(), set.get("skills.1.dmg"));
+        assertEquals(originalSkillPoints - 1, set.get("skillPoints"));
+        assertFalse(set.containsKey("skills"));
+        assertFalse(set.keySet().stream().anyMatch(key -> key.startsWith("skills.0.")));
+        verify(playerMonsterRepository, never()).save(any(PlayerMonster.class));
     }
 
     @Test
     void createMonsterFromTemplate() {
         // Prepare
-        when(monsterTemplateRepository.findById(1)).thenReturn(Optional.of(testTemplate));
-        when(playerMonsterRepository.save(any(PlayerMonster.class))).thenAnswer(invocation -> {
-            PlayerMonster savedMonster = (PlayerMonster) invocation.getArgument(0);
-            savedMonster.setId("newmonster1");
-            return savedMonster;
-        });
+        when(monsterTemplateCatalog.findById(1)).thenReturn(Optional.of(testTemplate));
+        when(playerMonsterRepository.save(any(PlayerMonster.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Execute
         PlayerMonster result = monsterService.createMonsterFromTemplate(1, "testuser");
 
         // Verify
         assertNotNull(result);
-        assertEquals("newmonster1", result.getId());
+        // The ID is assigned before saving and the name is generated from it
+        assertTrue(ObjectId.isValid(result.getId()));
+        assertEquals(NameGenerator.generateName(result.getId(), "fire"), result.getName());
         assertEquals("testuser", result.getUsername());
         assertEquals("1", result.getTemplateId());
         assertEquals("fire", result.getElement());
@@ -213,18 +357,35 @@ public class MonsterServiceTest {
         assertEquals(3, result.getSkillPoints());
         assertEquals(2, result.getSkills().size());
         assertEquals(0, result.getSkills().get(0).getLevel()); // New monster's skill level should be 0
-        verify(monsterTemplateRepository, times(1)).findById(1);
+        verify(monsterTemplateCatalog, times(1)).findById(1);
         verify(playerMonsterRepository, times(1)).save(any(PlayerMonster.class));
     }
 
     @Test
     void createMonsterFromTemplateNotFound() {
         // Prepare
-        when(monsterTemplateRepository.findById(999)).thenReturn(Optional.empty());
+        when(monsterTemplateCatalog.findById(999)).thenReturn(Optional.empty());
 
         // Execute & Verify
         assertThrows(RuntimeException.class, () -> monsterService.createMonsterFromTemplate(999, "testuser"));
-        verify(monsterTemplateRepository, times(1)).findById(999);
+        verify(monsterTemplateCatalog, times(1)).findById(999);
+        verify(playerMonsterRepository, never()).save(any(PlayerMonster.class));
+    }
+
+    @Test
+    void createMonstersFromTemplates() {
+        // Prepare
+        when(monsterTemplateCatalog.findById(1)).thenReturn(Optional.of(testTemplate));
+        when(playerMonsterRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execute
+        List<PlayerMonster> result = monsterService.createMonstersFromTemplates(Arrays.asList(1, 1, 1), "testuser");
+
+        // Verify
+        assertEquals(3, result.size());
+        assertEquals("testuser", result.get(2).getUsername());
+        assertEquals("1", result.get(2).getTemplateId());
+        verify(playerMonsterRepository, times(1)).insert(anyList());
         verify(playerMonsterRepository, never()).save(any(PlayerMonster.class));
     }
-}
\ No newline at end of file
+}
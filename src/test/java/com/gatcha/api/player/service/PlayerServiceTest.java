@@ -3,12 +3,20 @@ package com.gatcha.api.player.service;
 import com.gatcha.api.auth.model.User;
 import com.gatcha.api.auth.repository.UserRepository;
 import com.gatcha.api.player.service.impl.PlayerServiceImpl;
+import com.mongodb.client.result.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.bson.Document;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -17,6 +25,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +36,9 @@ public class PlayerServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @InjectMocks
     private PlayerServiceImpl playerService;
 
@@ -98,119 +112,204 @@ public class PlayerServiceTest {
     @Test
     void addExperience() {
         // Prepare
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        testUser.setExperience(50);
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(any(Query.class), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(testUser);
 
         // Execute
         User result = playerService.addExperience("testuser", 50);
 
-        // Verify
+        // Verify: only experience and level fields are written, the user is never loaded or saved
         assertEquals(50, result.getExperience());
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).save(any(User.class));
+        String update = updateCaptor.getValue().getUpdateObject().toJson();
+        assertTrue(update.contains("experience"));
+        assertTrue(update.contains("maxExperience"));
+        assertFalse(update.contains("monsters"));
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void addExperienceUserNotFound() {
+        // Prepare
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(null);
+
+        // Execute & Verify
+        assertThrows(RuntimeException.class, () -> playerService.addExperience("unknown", 50));
     }
 
     @Test
     void levelUp() {
         // Prepare
-        testUser.setExperience(100); // Enough to level up
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = (User) invocation.getArgument(0);
-            savedUser.setLevel(2);
-            savedUser.setExperience(0);
-            savedUser.setMaxExperience(110); // 10% increase
-            return savedUser;
-        });
+        testUser.setLevel(2);
+        testUser.setExperience(0);
+        testUser.setMaxExperience(110);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(testUser);
 
         // Execute
         User result = playerService.levelUp("testuser");
 
-        // Verify
+        // Verify: the level-up condition is part of the filter and monsters are not written
         assertEquals(2, result.getLevel());
         assertEquals(0, result.getExperience());
         assertEquals(110, result.getMaxExperience());
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).save(any(User.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals("testuser", filter.get("username"));
+        assertTrue(filter.toJson().contains("$maxExperience"));
+        assertFalse(updateCaptor.getValue().getUpdateObject().toJson().contains("monsters"));
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void levelUpNotEnoughExperience() {
-        // Prepare
-        testUser.setExperience(50); // Not enough to level up
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        // Prepare: filter does not match without enough experience
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(null);
 
         // Execute & Verify
         assertThrows(RuntimeException.class, () -> playerService.levelUp("testuser"));
-        verify(userRepository, times(1)).findByUsername("testuser");
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void addMonster() {
         // Prepare
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.updateFirst(queryCaptor.capture(), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Execute
         boolean result = playerService.addMonster("testuser", "monster3");
 
-        // Verify
+        // Verify: slot check is part of the filter, the user is never loaded or saved
         assertTrue(result);
-        assertEquals(3, testUser.getMonsters().size());
-        assertTrue(testUser.getMonsters().contains("monster3"));
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).save(any(User.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals("testuser", filter.get("username"));
+        String expression = filter.toJson();
+        assertTrue(expression.contains("$size"));
+        assertTrue(expression.contains("$level"));
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void addMonsterTooMany() {
+    void restoreMonstersIgnoresSlots() {
         // Prepare
-        // Mock User.canAddMonster() method to return false
-        User spyUser = spy(testUser);
-        when(spyUser.canAddMonster()).thenReturn(false);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(spyUser));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.updateFirst(queryCaptor.capture(), updateCaptor.capture(), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        boolean result = playerService.restoreMonsters("testuser", List.of("monster3"));
+
+        // Verify: no slot check in the filter, the monsters are added back to the set
+        assertTrue(result);
+        assertFalse(queryCaptor.getValue().getQueryObject().containsKey("$expr"));
+        assertTrue(updateCaptor.getValue().getUpdateObject().containsKey("$addToSet"));
+    }
+
+    @Test
+    void addMonsterTooMany() {
+        // Prepare: filter does not match when the roster is full
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         // Execute
         boolean result = playerService.addMonster("testuser", "monster3");
 
         // Verify
         assertFalse(result);
-        assertEquals(2, spyUser.getMonsters().size());
-        assertFalse(spyUser.getMonsters().contains("monster3"));
-        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void addMonsters() {
+        // Prepare
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        boolean result = playerService.addMonsters("testuser", Arrays.asList("monster3", "monster4"));
+
+        // Verify
+        assertTrue(result);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+        verify(userRepository, never()).findByUsername(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void removeMonster() {
         // Prepare
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Execute
         boolean result = playerService.removeMonster("testuser", "monster1");
 
-        // Verify
+        // Verify: a single $pull, the user is never loaded or saved
         assertTrue(result);
-        assertEquals(1, testUser.getMonsters().size());
-        assertFalse(testUser.getMonsters().contains("monster1"));
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$pull")), eq(User.class));
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void removeMonsterNotFound() {
-        // Prepare
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        // Prepare: nothing pulled
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null));
 
         // Execute
         boolean result = playerService.removeMonster("testuser", "nonexistent");
 
         // Verify
         assertFalse(result);
-        assertEquals(2, testUser.getMonsters().size());
-        verify(userRepository, times(1)).findByUsername("testuser");
         verify(userRepository, never()).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void removeMonsters() {
+        // Prepare
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        boolean result = playerService.removeMonsters("testuser", Arrays.asList("monster1", "monster2"));
+
+        // Verify: a single $pull with $in, matched on the player only
+        assertTrue(result);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$pull")), eq(User.class));
+        verify(mongoTemplate).updateFirst(argThat(query -> !query.getQueryObject().containsKey("monsters")),
+                any(Update.class), eq(User.class));
+    }
+
+    @Test
+    void removeMonstersIfOwned() {
+        // Prepare
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Execute
+        boolean result = playerService.removeMonstersIfOwned("testuser", Arrays.asList("monster1", "monster2"),
+                List.of("monster3"));
+
+        // Verify
+        assertTrue(result);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$pullAll")), eq(User.class));
+        // Only matches a player still owning every monster, including the one kept
+        verify(mongoTemplate).updateFirst(argThat(query -> query.getQueryObject().get("monsters", Document.class)
+                        .getList("$all", String.class).containsAll(List.of("monster1", "monster2", "monster3"))),
+                argThat(update -> !update.getUpdateObject().get("$pullAll", Document.class)
+                        .getList("monsters", Object.class).contains("monster3")), eq(User.class));
+    }
+}
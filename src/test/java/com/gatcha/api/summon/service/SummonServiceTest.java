@@ -1,9 +1,10 @@
 package com.gatcha.api.summon.service;
 
+import com.gatcha.api.auth.model.User;
+import com.gatcha.api.monster.catalog.MonsterTemplateCatalog;
 import com.gatcha.api.monster.model.MonsterTemplate;
 import com.gatcha.api.monster.model.PlayerMonster;
 import com.gatcha.api.monster.model.Skill;
-import com.gatcha.api.monster.repository.MonsterTemplateRepository;
 import com.gatcha.api.monster.service.MonsterService;
 import com.gatcha.api.player.service.PlayerService;
 import com.gatcha.api.summon.model.SummonLog;
@@ -29,7 +30,7 @@ import static org.mockito.Mockito.*;
 public class SummonServiceTest {
 
     @Mock
-    private MonsterTemplateRepository monsterTemplateRepository;
+    private MonsterTemplateCatalog monsterTemplateCatalog;
 
     @Mock
     private SummonLogRepository summonLogRepository;
@@ -115,7 +116,7 @@ public class SummonServiceTest {
     @Test
     void summonSuccess() {
         // Prepare
-        when(monsterTemplateRepository.findAll()).thenReturn(templates);
+        when(monsterTemplateCatalog.draw()).thenReturn(template1);
         when(summonLogRepository.save(any(SummonLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(monsterService.createMonsterFromTemplate(anyInt(), anyString())).thenReturn(playerMonster);
         when(playerService.addMonster(anyString(), anyString())).thenReturn(true);
@@ -127,7 +128,7 @@ public class SummonServiceTest {
         assertNotNull(result);
         assertEquals("monster1", result.getId());
         assertEquals("testuser", result.getUsername());
-        verify(monsterTemplateRepository, times(1)).findAll();
+        verify(monsterTemplateCatalog, times(1)).draw();
         verify(summonLogRepository, times(2)).save(any(SummonLog.class)); // Saved twice: initial and update
         verify(monsterService, times(1)).createMonsterFromTemplate(anyInt(), eq("testuser"));
         verify(playerService, times(1)).addMonster("testuser", "monster1");
@@ -136,14 +137,14 @@ public class SummonServiceTest {
     @Test
     void summonFailAddMonster() {
         // Prepare
-        when(monsterTemplateRepository.findAll()).thenReturn(templates);
+        when(monsterTemplateCatalog.draw()).thenReturn(template1);
         when(summonLogRepository.save(any(SummonLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(monsterService.createMonsterFromTemplate(anyInt(), anyString())).thenReturn(playerMonster);
         when(playerService.addMonster(anyString(), anyString())).thenReturn(false);
 
         // Execute & Verify
         assertThrows(RuntimeException.class, () -> summonService.summon("testuser"));
-        verify(monsterTemplateRepository, times(1)).findAll();
+        verify(monsterTemplateCatalog, times(1)).draw();
         verify(summonLogRepository, times(2)).save(any(SummonLog.class)); // Saved twice: initial and failure update
         verify(monsterService, times(1)).createMonsterFromTemplate(anyInt(), eq("testuser"));
         verify(playerService, times(1)).addMonster("testuser", "monster1");
@@ -152,19 +153,46 @@ public class SummonServiceTest {
     @Test
     void summonFailCreateMonster() {
         // Prepare
-        when(monsterTemplateRepository.findAll()).thenReturn(templates);
+        when(monsterTemplateCatalog.draw()).thenReturn(template1);
         when(summonLogRepository.save(any(SummonLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(monsterService.createMonsterFromTemplate(anyInt(), anyString()))
                 .thenThrow(new RuntimeException("Test exception"));
 
         // Execute & Verify
         assertThrows(RuntimeException.class, () -> summonService.summon("testuser"));
-        verify(monsterTemplateRepository, times(1)).findAll();
+        verify(monsterTemplateCatalog, times(1)).draw();
         verify(summonLogRepository, times(2)).save(any(SummonLog.class)); // Saved twice: initial and failure update
         verify(monsterService, times(1)).createMonsterFromTemplate(anyInt(), eq("testuser"));
         verify(playerService, never()).addMonster(anyString(), anyString());
     }
 
+    @Test
+    void summonMultiple() {
+        // Prepare
+        User user = new User();
+        user.setUsername("testuser");
+        user.setLevel(1);
+        user.setMonsters(new ArrayList<>(Arrays.asList("m1", "m2", "m3", "m4", "m5", "m6", "m7")));
+        when(playerService.getProfile("testuser")).thenReturn(user);
+        when(monsterTemplateCatalog.draw()).thenReturn(template1, template2, template1);
+        when(monsterService.createMonstersFromTemplates(anyList(), eq("testuser")))
+                .thenReturn(Arrays.asList(playerMonster, playerMonster, playerMonster));
+        when(playerService.addMonsters(eq("testuser"), anyList())).thenReturn(true);
+
+        // Execute
+        List<PlayerMonster> result = summonService.summonMultiple("testuser", 10);
+
+        // Verify: only 3 free slots, everything written in bulk
+        assertEquals(3, result.size());
+        verify(playerService, times(1)).getProfile("testuser");
+        verify(monsterTemplateCatalog, times(3)).draw();
+        verify(monsterService, times(1)).createMonstersFromTemplates(Arrays.asList(1, 2, 1), "testuser");
+        verify(playerService, times(1)).addMonsters(eq("testuser"), anyList());
+        verify(playerService, never()).addMonster(anyString(), anyString());
+        verify(summonLogRepository, times(1)).insert(anyList());
+        verify(summonLogRepository, never()).save(any(SummonLog.class));
+    }
+
     @Test
     void getSummonHistory() {
         // Prepare
@@ -214,4 +242,26 @@ public class SummonServiceTest {
         verify(playerService, times(1)).addMonster(anyString(), anyString());
         verify(summonLogRepository, times(1)).save(any(SummonLog.class)); // Only one successful update
     }
-}
\ No newline at end of file
+
+    @Test
+    void reprocessFailedSummonsReusesMonster() {
+        // Prepare
+        SummonLog failedLog = new SummonLog();
+        failedLog.setId("failed1");
+        failedLog.setUsername("testuser");
+        failedLog.setTemplateId("1");
+        failedLog.setMonsterId("monster1");
+        failedLog.setProcessed(false);
+
+        when(summonLogRepository.findByProcessed(false)).thenReturn(Arrays.asList(failedLog));
+        when(playerService.addMonster("testuser", "monster1")).thenReturn(true);
+
+        // Execute
+        summonService.reprocessFailedSummons();
+
+        // Verify
+        assertTrue(failedLog.isProcessed());
+        verify(monsterService, never()).createMonsterFromTemplate(anyInt(), anyString());
+        verify(summonLogRepository, times(1)).save(failedLog);
+    }
+}
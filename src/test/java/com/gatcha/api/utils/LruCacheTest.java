@@ -0,0 +1,31 @@
+package com.gatcha.api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruCacheTest {
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedEntry() {
+        // Prepare
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        // Execute
+        cache.put("c", 3);
+
+        // Verify
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, Integer>(0));
+    }
+}
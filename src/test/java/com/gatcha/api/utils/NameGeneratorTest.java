@@ -0,0 +1,42 @@
+package com.gatcha.api.utils;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameGeneratorTest {
+
+    private static final String[] ELEMENTS = {"fire", "water", "wind", "earth", "Fire", "light"};
+
+    @Test
+    void cachedName_ShouldMatchGeneratedName() {
+        // Prepare, more monsters than the memo holds so entries get replaced
+        String[] monsterIds = new String[10000];
+        for (int i = 0; i < monsterIds.length; i++) {
+            monsterIds[i] = new ObjectId().toHexString();
+        }
+
+        // Execute & Verify, twice to read back memoized names
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < monsterIds.length; i++) {
+                String element = ELEMENTS[i % ELEMENTS.length];
+                assertEquals(NameGenerator.generateName(monsterIds[i], element),
+                        NameGenerator.cachedName(monsterIds[i], element));
+            }
+        }
+    }
+
+    @Test
+    void cachedName_ShouldReuseMemoizedName() {
+        // Prepare
+        String monsterId = new ObjectId().toHexString();
+        String first = NameGenerator.cachedName(monsterId, "water");
+
+        // Execute
+        String second = NameGenerator.cachedName(monsterId, "water");
+
+        // Verify
+        assertSame(first, second);
+    }
+}